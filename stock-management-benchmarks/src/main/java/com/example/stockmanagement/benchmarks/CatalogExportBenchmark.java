@@ -0,0 +1,137 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.StockManagementApplication;
+import com.example.stockmanagement.service.CatalogExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The NDJSON catalog export in a fork with a small fixed heap. The catalog lives in an H2 file database, so the
+ * heap holds the application and whatever the export itself keeps; the run fails with an OutOfMemoryError if the
+ * export holds on to rows. After every export the peak of the old generation is printed; it stays in the same
+ * range whether 100k or a million rows went out.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms256m", "-Xmx256m"})
+public class CatalogExportBenchmark {
+
+    // Started with a single product so the startup work that scales with the catalog stays out of the heap
+    private static final int STARTUP_CATALOG_SIZE = 1;
+
+    @State(Scope.Benchmark)
+    public static class Export {
+
+        @Param({"100000", "1000000"})
+        public int catalogSize;
+
+        @Param({"false", "true"})
+        public boolean gzip;
+
+        Path directory;
+        ConfigurableApplicationContext context;
+        CatalogExportService exportService;
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            directory = Files.createTempDirectory("catalog-export-bench");
+            SpringApplication application = new SpringApplication(StockManagementApplication.class);
+            application.setWebApplicationType(WebApplicationType.NONE);
+            CatalogSeeder.seedOnStartup(application, STARTUP_CATALOG_SIZE, 0);
+            // Passed as arguments so they win over application.properties
+            context = application.run(
+                    "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("catalog") + ";CACHE_SIZE=16384",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN");
+            CatalogSeeder.growCatalog(context, STARTUP_CATALOG_SIZE, catalogSize);
+            exportService = context.getBean(CatalogExportService.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void resetPeaks() {
+            heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        @TearDown(Level.Iteration)
+        public void printPeaks() {
+            for (MemoryPoolMXBean pool : heapPools()) {
+                if (pool.getName().contains("Old") || pool.getName().contains("Tenured")) {
+                    System.out.printf("%n%s peak: %d MB of %d MB heap%n", pool.getName(),
+                            pool.getPeakUsage().getUsed() >> 20, Runtime.getRuntime().maxMemory() >> 20);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            context.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+
+        private static List<MemoryPoolMXBean> heapPools() {
+            return ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public long exportCatalog(Export export) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        long lines;
+        if (export.gzip) {
+            GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+            lines = export.exportService.exportCatalog(gzipOut);
+            gzipOut.finish();
+        } else {
+            lines = export.exportService.exportCatalog(out);
+        }
+        if (lines != export.catalogSize) {
+            throw new IllegalStateException("Exported " + lines + " lines for " + export.catalogSize + " products");
+        }
+        return out.bytes;
+    }
+
+    // Stands in for the response: counts what would have been sent
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
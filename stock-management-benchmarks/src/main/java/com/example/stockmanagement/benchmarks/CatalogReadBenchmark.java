@@ -0,0 +1,78 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.InventoryRow;
+import com.example.stockmanagement.dto.ProductSearchPage;
+import com.example.stockmanagement.dto.ProductSummary;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.service.InventoryService;
+import com.example.stockmanagement.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The service calls behind the read endpoints. Lookups by id pick random products, so with catalogs larger than
+ * the product cache most of them miss it, as they would in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogReadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Services {
+        ProductService productService;
+        InventoryService inventoryService;
+
+        @Setup(Level.Trial)
+        public void resolve(CatalogState catalog) {
+            productService = catalog.bean(ProductService.class);
+            inventoryService = catalog.bean(InventoryService.class);
+        }
+    }
+
+    @Benchmark
+    public Product getProductById(CatalogState catalog, Services services) {
+        return services.productService.getProductById(catalog.productId(ThreadLocalRandom.current().nextLong()));
+    }
+
+    @Benchmark
+    public List<InventoryRow> getLowStockItems(Services services) {
+        return services.inventoryService.getLowStockItems();
+    }
+
+    @Benchmark
+    public List<ProductSummary> getAllProducts(Services services) {
+        return services.productService.getAllProducts();
+    }
+
+    @Benchmark
+    public List<InventoryRow> getAllInventory(Services services) {
+        return services.inventoryService.getAllInventory();
+    }
+
+    @Benchmark
+    public CursorPage<ProductSummary> getProductPageByName(Services services) {
+        return services.productService.getProductPage(50, null, "name");
+    }
+
+    @Benchmark
+    public ProductSearchPage searchProducts(Services services) {
+        return services.productService.searchProducts("product 12", 0, 20);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.config.IdSequenceAligner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fills the catalog tables of a fresh database straight through SQL: products 1..size, each with an inventory
+ * row, spread over {@link #CATEGORY_COUNT} categories. Seeding runs once the schema exists but before the startup
+ * runners, so the sample data is skipped and the opening ledger balances and search index are brought up to date
+ * the same way as on any other startup. The id sequences were aligned before the seeded rows existed, so they are
+ * aligned again right after, while nothing else can allocate ids yet. A million SKUs take well under a minute.
+ * <p>
+ * {@link #growCatalog} adds products to a running application instead. Nothing but the tables learns about them,
+ * which suits benchmarks that read the tables directly and must not pay for the in-memory structures built at
+ * startup, such as the search index. The id sequences do not learn about them either, so such benchmarks must not
+ * create products afterwards.
+ */
+public final class CatalogSeeder {
+
+    public static final int CATEGORY_COUNT = 20;
+    // Quantities cycle through 0..199 against a minimum of 10, so about 5.5% of the catalog is low on stock
+    public static final int MIN_STOCK_LEVEL = 10;
+    // Large enough that removals never run a hot product out of stock
+    public static final int HOT_PRODUCT_QUANTITY = 1_000_000_000;
+    public static final long FIRST_PRODUCT_ID = 1;
+    // Rows per insert statement, so a large catalog is not written in one transaction
+    private static final int INSERT_CHUNK = 100_000;
+
+    private CatalogSeeder() {
+    }
+
+    // Products 1..hotProducts get the hot quantity
+    public static void seedOnStartup(SpringApplication application, int catalogSize, int hotProducts) {
+        application.addListeners((ApplicationListener<ContextRefreshedEvent>) event -> {
+            seed(event.getApplicationContext().getBean(JdbcTemplate.class), catalogSize, hotProducts);
+            event.getApplicationContext().getBean(IdSequenceAligner.class).align();
+        });
+    }
+
+    // Grows a catalog seeded with currentSize products to newSize; the added products are never hot
+    public static void growCatalog(ApplicationContext context, int currentSize, int newSize) {
+        long started = System.currentTimeMillis();
+        insertProducts(context.getBean(JdbcTemplate.class), FIRST_PRODUCT_ID + currentSize,
+                FIRST_PRODUCT_ID + newSize - 1);
+        System.out.println("Grew the catalog to " + newSize + " products in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    private static void seed(JdbcTemplate jdbc, int catalogSize, int hotProducts) {
+        long started = System.currentTimeMillis();
+        jdbc.update("INSERT INTO categories (id, name, description, last_modified) "
+                + "SELECT X, 'Bench category ' || X, 'Seeded for benchmarks', CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, ?)", CATEGORY_COUNT);
+        insertProducts(jdbc, FIRST_PRODUCT_ID, FIRST_PRODUCT_ID + catalogSize - 1);
+        jdbc.update("UPDATE inventory SET quantity = ?, low_stock = FALSE WHERE product_id < ?",
+                HOT_PRODUCT_QUANTITY, FIRST_PRODUCT_ID + hotProducts);
+        System.out.println("Seeded " + catalogSize + " products in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    private static void insertProducts(JdbcTemplate jdbc, long firstId, long lastId) {
+        for (long from = firstId; from <= lastId; from += INSERT_CHUNK) {
+            long to = Math.min(lastId, from + INSERT_CHUNK - 1);
+            jdbc.update("INSERT INTO products (id, name, description, price, sku, category_id, version, "
+                    + "last_modified) SELECT X, 'Bench product ' || X, 'Seeded product number ' || X || "
+                    + "' for benchmarks', 9.99 + MOD(X, 100), 'BENCH-' || X, 1 + MOD(X, ?), 0, CURRENT_TIMESTAMP "
+                    + "FROM SYSTEM_RANGE(?, ?)", CATEGORY_COUNT, from, to);
+            jdbc.update("INSERT INTO inventory (id, product_id, quantity, min_stock_level, reserved, low_stock, "
+                    + "version, last_updated) SELECT X, X, MOD(X, 200), ?, 0, MOD(X, 200) <= ?, 0, "
+                    + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)", MIN_STOCK_LEVEL, MIN_STOCK_LEVEL, from, to);
+        }
+    }
+}
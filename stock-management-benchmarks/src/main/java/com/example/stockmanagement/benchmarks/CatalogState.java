@@ -0,0 +1,62 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.StockManagementApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application context on a fresh in-memory H2 database holding {@code catalogSize} products, see
+ * {@link CatalogSeeder}. Product 1 is the hot SKU the contention benchmarks fight over.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    public ConfigurableApplicationContext context;
+    public final long hotProductId = CatalogSeeder.FIRST_PRODUCT_ID;
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplication application = new SpringApplication(StockManagementApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        CatalogSeeder.seedOnStartup(application, catalogSize, 1);
+        // Passed as arguments so they win over application.properties
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        arguments.addAll(extraArguments());
+        context = application.run(arguments.toArray(String[]::new));
+    }
+
+    // Settings a benchmark varies on top of the defaults
+    protected List<String> extraArguments() {
+        return List.of();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // A product id spread evenly over the seeded range
+    public long productId(long n) {
+        return CatalogSeeder.FIRST_PRODUCT_ID + Math.floorMod(n, catalogSize);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock changes through {@link InventoryService}: adds and removes racing on one SKU, against the same adds
+ * spread over the whole catalog. Each runs with and without hot-product write coalescing
+ * ({@code stock.coalescing.enabled}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog extends CatalogState {
+
+        @Param({"false", "true"})
+        public boolean coalescing;
+
+        @Override
+        protected List<String> extraArguments() {
+            return List.of("--stock.coalescing.enabled=" + coalescing);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Services {
+        InventoryService inventoryService;
+
+        @Setup(Level.Trial)
+        public void resolve(Catalog catalog) {
+            inventoryService = catalog.bean(InventoryService.class);
+        }
+    }
+
+    @Benchmark
+    @Group("singleSku")
+    @GroupThreads(2)
+    public Inventory addStock(Catalog catalog, Services services) {
+        return services.inventoryService.addStock(catalog.hotProductId, 1);
+    }
+
+    @Benchmark
+    @Group("singleSku")
+    @GroupThreads(2)
+    public Inventory removeStock(Catalog catalog, Services services) {
+        return services.inventoryService.removeStock(catalog.hotProductId, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Inventory addStockSpread(Catalog catalog, Services services) {
+        return services.inventoryService.addStock(catalog.productId(ThreadLocalRandom.current().nextLong()), 1);
+    }
+}
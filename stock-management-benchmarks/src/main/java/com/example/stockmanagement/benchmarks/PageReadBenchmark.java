@@ -0,0 +1,148 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.dto.InventoryRow;
+import com.example.stockmanagement.dto.ProductSummary;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 10k-row page of products or inventory, read and rendered to JSON the way the list endpoints do it now (DTO
+ * projections in a read-only transaction) and the way they did it before (managed entities with their associations
+ * in a read-write transaction). Each page starts at a random id. Besides the time per page, the bytes the thread
+ * allocated per page are printed after every iteration; {@code -prof gc} reports the same as gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PageReadBenchmark {
+
+    // Above the endpoints' own limit, so the pages are read through the repositories the services use
+    private static final int PAGE_SIZE = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Pages {
+        ObjectMapper objectMapper;
+        ProductRepository productRepository;
+        InventoryRepository inventoryRepository;
+        EntityManager entityManager;
+        TransactionTemplate readOnly;
+        TransactionTemplate readWrite;
+        int catalogSize;
+
+        @Setup(Level.Trial)
+        public void resolve(CatalogState catalog) {
+            objectMapper = catalog.bean(ObjectMapper.class);
+            productRepository = catalog.bean(ProductRepository.class);
+            inventoryRepository = catalog.bean(InventoryRepository.class);
+            entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                    catalog.bean(EntityManagerFactory.class));
+            PlatformTransactionManager transactionManager = catalog.bean(PlatformTransactionManager.class);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readWrite = new TransactionTemplate(transactionManager);
+            catalogSize = catalog.catalogSize;
+        }
+
+        // Products and inventory rows share their ids in the seeded catalog
+        long randomAfterId() {
+            int pages = Math.max(1, catalogSize - PAGE_SIZE + 1);
+            return CatalogSeeder.FIRST_PRODUCT_ID - 1 + ThreadLocalRandom.current().nextInt(pages);
+        }
+    }
+
+    // Bytes the benchmark thread allocated per page during one iteration
+    @State(Scope.Thread)
+    public static class Allocation {
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore;
+        long pages;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            pages = 0;
+            allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        }
+
+        @TearDown(Level.Iteration)
+        public void print() {
+            if (pages > 0) {
+                long perPage = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / pages;
+                System.out.printf("%nAllocated per page: %.1f MB%n", perPage / (1024.0 * 1024.0));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] productSummaries(Pages pages, Allocation allocation) throws JsonProcessingException {
+        long afterId = pages.randomAfterId();
+        List<ProductSummary> page = pages.readOnly.execute(status ->
+                pages.productRepository.findPageOrderById(afterId, PageRequest.ofSize(PAGE_SIZE)).getContent());
+        allocation.pages++;
+        return pages.objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] productEntities(Pages pages, Allocation allocation) throws JsonProcessingException {
+        long afterId = pages.randomAfterId();
+        List<Product> page = pages.readWrite.execute(status -> pages.entityManager.createQuery(
+                        "SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id > :afterId ORDER BY p.id",
+                        Product.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList());
+        allocation.pages++;
+        return pages.objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] inventoryRows(Pages pages, Allocation allocation) throws JsonProcessingException {
+        long afterId = pages.randomAfterId();
+        List<InventoryRow> page = pages.readOnly.execute(status ->
+                pages.inventoryRepository.findPageOrderById(afterId, PageRequest.ofSize(PAGE_SIZE)).getContent());
+        allocation.pages++;
+        return pages.objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] inventoryEntities(Pages pages, Allocation allocation) throws JsonProcessingException {
+        long afterId = pages.randomAfterId();
+        List<Inventory> page = pages.readWrite.execute(status -> pages.entityManager.createQuery(
+                        "SELECT i FROM Inventory i JOIN FETCH i.product p LEFT JOIN FETCH p.category "
+                                + "WHERE i.id > :afterId ORDER BY i.id", Inventory.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList());
+        allocation.pages++;
+        return pages.objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.StockManagementApplication;
+import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts {@link #PRODUCTS} products with their inventory rows through JPA, flushing and clearing every chunk like
+ * the catalog import does. An allocation size and batch size of 1 is the old one-round-trip-per-row behaviour; 50
+ * is the pooled sequence setup. A small catalog is seeded first, so an optimizer whose sequence restart is off by
+ * a block fails on duplicate ids instead of quietly passing.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ProductInsertBenchmark {
+
+    public static final int PRODUCTS = 100_000;
+    private static final int CHUNK_SIZE = 1000;
+
+    @State(Scope.Benchmark)
+    public static class InsertState {
+
+        @Param({"1", "50"})
+        public int allocationSize;
+
+        @Param({"1", "50"})
+        public int batchSize;
+
+        @Param({"pooled-lo", "pooled"})
+        public String optimizer;
+
+        ConfigurableApplicationContext context;
+        EntityManager entityManager;
+        TransactionTemplate transactionTemplate;
+        JdbcTemplate jdbcTemplate;
+        Category category;
+
+        @Setup(Level.Trial)
+        public void start() {
+            SpringApplication application = new SpringApplication(StockManagementApplication.class);
+            application.setWebApplicationType(WebApplicationType.NONE);
+            CatalogSeeder.seedOnStartup(application, 1000, 1);
+            context = application.run(
+                    "--spring.datasource.url=jdbc:h2:mem:insert-" + optimizer + "-" + allocationSize + "-" + batchSize
+                            + ";DB_CLOSE_DELAY=-1",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--spring.jpa.properties.stock.id.allocation_size=" + allocationSize,
+                    "--spring.jpa.properties.stock.id.optimizer=" + optimizer,
+                    "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+            entityManager = context.getBean(EntityManager.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            category = transactionTemplate.execute(status -> entityManager.find(Category.class, 1L));
+        }
+
+        // Every iteration starts from the seeded catalog again; the sequences simply carry on
+        @Setup(Level.Iteration)
+        public void removeInserted() {
+            jdbcTemplate.update("DELETE FROM inventory WHERE product_id > 1000");
+            jdbcTemplate.update("DELETE FROM products WHERE id > 1000");
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int insertProducts(InsertState state) {
+        for (int chunkStart = 0; chunkStart < PRODUCTS; chunkStart += CHUNK_SIZE) {
+            int from = chunkStart;
+            state.transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (int i = from; i < from + CHUNK_SIZE; i++) {
+                    Product product = new Product(null, "Inserted product " + i, "Inserted by the benchmark",
+                            BigDecimal.valueOf(9.99), "INS-" + i, state.category);
+                    state.entityManager.persist(product);
+                    state.entityManager.persist(new Inventory(null, product, i % 200,
+                            CatalogSeeder.MIN_STOCK_LEVEL, now));
+                }
+                state.entityManager.flush();
+                state.entityManager.clear();
+            });
+        }
+        return PRODUCTS;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.dto.InventoryRow;
+import com.example.stockmanagement.dto.ProductSummary;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.repository.ProductRepository;
+import com.example.stockmanagement.service.InventoryService;
+import com.example.stockmanagement.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON rendering of the full catalog lists with the application's own ObjectMapper, as list projections and as
+ * the entities the endpoints returned before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SerializationBenchmark {
+
+    // One state per list, so each benchmark only keeps the list it renders in memory
+    @State(Scope.Benchmark)
+    public static class ProductSummaries {
+        ObjectMapper objectMapper;
+        List<ProductSummary> list;
+
+        @Setup(Level.Trial)
+        public void load(CatalogState catalog) {
+            objectMapper = catalog.bean(ObjectMapper.class);
+            list = catalog.bean(ProductService.class).getAllProducts();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProductEntities {
+        ObjectMapper objectMapper;
+        List<Product> list;
+
+        @Setup(Level.Trial)
+        public void load(CatalogState catalog) {
+            objectMapper = catalog.bean(ObjectMapper.class);
+            // Loaded with their categories, so nothing lazy is left to initialize while rendering
+            list = catalog.bean(ProductRepository.class).findAll();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class InventoryRows {
+        ObjectMapper objectMapper;
+        List<InventoryRow> list;
+
+        @Setup(Level.Trial)
+        public void load(CatalogState catalog) {
+            objectMapper = catalog.bean(ObjectMapper.class);
+            list = catalog.bean(InventoryService.class).getAllInventory();
+        }
+    }
+
+    @Benchmark
+    public byte[] productSummaries(ProductSummaries summaries) throws JsonProcessingException {
+        return summaries.objectMapper.writeValueAsBytes(summaries.list);
+    }
+
+    @Benchmark
+    public byte[] productEntities(ProductEntities entities) throws JsonProcessingException {
+        return entities.objectMapper.writeValueAsBytes(entities.list);
+    }
+
+    @Benchmark
+    public byte[] inventoryRows(InventoryRows rows) throws JsonProcessingException {
+        return rows.objectMapper.writeValueAsBytes(rows.list);
+    }
+}
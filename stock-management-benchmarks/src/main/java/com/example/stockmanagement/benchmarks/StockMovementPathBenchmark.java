@@ -0,0 +1,117 @@
+package com.example.stockmanagement.benchmarks;
+
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.service.InventoryService;
+import com.example.stockmanagement.service.ProductService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eight threads moving stock on one SKU, alternating +3 and -2, through the guarded single-statement update the
+ * service uses and through the read-modify-write path it replaced. The read-modify-write path loses races to the
+ * version check, so besides the attempts per second the applied and failed movements are reported separately.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class StockMovementPathBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog extends CatalogState {
+
+        // Every lost race of the read-modify-write path would otherwise log the failed batch
+        @Override
+        protected List<String> extraArguments() {
+            return List.of("--logging.level.org.hibernate.orm.jdbc.batch=OFF");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Services {
+        InventoryService inventoryService;
+        ProductService productService;
+        InventoryRepository inventoryRepository;
+        TransactionTemplate transactionTemplate;
+
+        @Setup(Level.Trial)
+        public void resolve(Catalog catalog) {
+            inventoryService = catalog.bean(InventoryService.class);
+            productService = catalog.bean(ProductService.class);
+            inventoryRepository = catalog.bean(InventoryRepository.class);
+            transactionTemplate = catalog.bean(TransactionTemplate.class);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Movements {
+        public long applied;
+        public long failed;
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            applied = 0;
+            failed = 0;
+        }
+
+        int nextDelta() {
+            return next++ % 2 == 0 ? 3 : -2;
+        }
+    }
+
+    @Benchmark
+    public void guarded(Catalog catalog, Services services, Movements movements) {
+        int delta = movements.nextDelta();
+        try {
+            if (delta > 0) {
+                services.inventoryService.addStock(catalog.hotProductId, delta);
+            } else {
+                services.inventoryService.removeStock(catalog.hotProductId, -delta);
+            }
+            movements.applied++;
+        } catch (RuntimeException e) {
+            movements.failed++;
+        }
+    }
+
+    // The path addStock/removeStock used to take: load product and inventory, change the quantity in Java, save
+    @Benchmark
+    public void readModifyWrite(Catalog catalog, Services services, Movements movements) {
+        int delta = movements.nextDelta();
+        try {
+            services.transactionTemplate.executeWithoutResult(status -> {
+                Product product = services.productService.getProductById(catalog.hotProductId);
+                Inventory inventory = services.inventoryRepository.findByProduct(product).orElseThrow();
+                if (inventory.getQuantity() + delta < 0) {
+                    throw new IllegalStateException("Not enough stock available");
+                }
+                inventory.setQuantity(inventory.getQuantity() + delta);
+                services.inventoryRepository.save(inventory);
+            });
+            movements.applied++;
+        } catch (RuntimeException e) {
+            movements.failed++;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Command line of the concurrency test, as {@code --name=value} pairs. Clients start evenly spread over the ramp-up
+ * so the server's accept queue is not hit by all connections in the same instant.
+ */
+public record ConcurrencyTestOptions(int clients, Duration rampUp, Duration warmup, Duration duration,
+                                     int catalogSize, Path output) {
+
+    public static ConcurrencyTestOptions parse(String[] args) {
+        Map<String, String> values = LoadTestOptions.arguments(args);
+        ConcurrencyTestOptions options = new ConcurrencyTestOptions(
+                Integer.parseInt(values.getOrDefault("clients", "5000")),
+                Duration.parse(values.getOrDefault("ramp-up", "PT10S")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Integer.parseInt(values.getOrDefault("catalog-size", "10000")),
+                Path.of(values.getOrDefault("output", "concurrency-results")));
+        if (options.clients <= 0 || options.catalogSize <= 0) {
+            throw new IllegalArgumentException("Clients and catalog size must be positive");
+        }
+        if (options.rampUp.compareTo(options.warmup) > 0) {
+            throw new IllegalArgumentException("The ramp-up must fit in the warmup");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import com.example.stockmanagement.StockManagementApplication;
+import com.example.stockmanagement.benchmarks.CatalogSeeder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+
+/**
+ * Runs the same closed-loop test twice, each time on a freshly booted application: once with request handling on
+ * Tomcat's platform thread pool and once on virtual threads. Virtual threads need Java 21; on older runtimes only
+ * the platform run takes place. See {@link ConcurrencyTestOptions} for the flags.
+ */
+public class ConcurrencyTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        ConcurrencyTestOptions options = ConcurrencyTestOptions.parse(args);
+
+        run(options, false);
+        if (Runtime.version().feature() >= 21) {
+            run(options, true);
+        } else {
+            System.out.println("Skipping the virtual thread run, it needs Java 21 and this is "
+                    + Runtime.version().feature());
+        }
+    }
+
+    private static void run(ConcurrencyTestOptions options, boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        SpringApplication application = new SpringApplication(StockManagementApplication.class);
+        CatalogSeeder.seedOnStartup(application, options.catalogSize(), 1);
+
+        // Passed as arguments so they win over application.properties
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:concurrency-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.println("== " + mode + " threads ==");
+            ConcurrentClients clients = new ConcurrentClients(URI.create("http://localhost:" + port + "/"), options);
+            LoadReport report = clients.run();
+            report.print(System.out);
+            report.write(options.output().resolve(mode));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import com.example.stockmanagement.benchmarks.CatalogSeeder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop traffic: a fixed number of clients, each sending its next inventory read as soon as the previous one
+ * came back. Unlike {@link LoadGenerator} this measures how many requests the server can have open at once and how
+ * long each waits; throughput is whatever the server sustains at that concurrency.
+ */
+public class ConcurrentClients {
+
+    private final URI server;
+    private final ConcurrencyTestOptions options;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private final OperationStats stats = new OperationStats();
+
+    public ConcurrentClients(URI server, ConcurrencyTestOptions options) {
+        this.server = server;
+        this.options = options;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        System.out.println("Ramping up " + options.clients() + " clients over " + options.rampUp() + " against "
+                + server);
+
+        CountDownLatch finished = new CountDownLatch(options.clients());
+        ScheduledExecutorService starter = Executors.newSingleThreadScheduledExecutor();
+        long stagger = options.rampUp().toNanos() / options.clients();
+        for (int i = 0; i < options.clients(); i++) {
+            starter.schedule(() -> next(measureFrom, end, finished), i * stagger, TimeUnit.NANOSECONDS);
+        }
+        starter.shutdown();
+
+        long grace = TimeUnit.NANOSECONDS.toSeconds(end - System.nanoTime()) + 60;
+        if (!finished.await(grace, TimeUnit.SECONDS)) {
+            System.out.println(finished.getCount() + " clients were still waiting when the report was taken");
+        }
+        Map<Operation, OperationStats> report = new EnumMap<>(Operation.class);
+        report.put(Operation.INVENTORY_READ, stats);
+        return new LoadReport(report, options.duration());
+    }
+
+    private void next(long measureFrom, long end, CountDownLatch finished) {
+        long sent = System.nanoTime();
+        if (sent >= end) {
+            finished.countDown();
+            return;
+        }
+        long productId = CatalogSeeder.FIRST_PRODUCT_ID + ThreadLocalRandom.current().nextInt(options.catalogSize());
+        HttpRequest request = HttpRequest.newBuilder(server.resolve("api/inventory/product/" + productId))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            String failure = error != null ? error.getClass().getSimpleName()
+                    : response.statusCode() >= 400 ? "HTTP " + response.statusCode() : null;
+            if (sent >= measureFrom) {
+                stats.record(System.nanoTime() - sent, failure);
+            }
+            next(measureFrom, end, finished);
+        });
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import com.example.stockmanagement.benchmarks.CatalogSeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Open-loop traffic: arrivals are due at a constant rate whether or not earlier requests have come back, and each
+ * latency is measured from when its request was due. A stalled server therefore shows up as queueing in the tail
+ * instead of quietly lowering the offered load (coordinated omission).
+ */
+public class LoadGenerator {
+
+    private static final String JSON = "application/json";
+
+    private final URI server;
+    private final LoadTestOptions options;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Semaphore inFlight;
+    private final Operation[] mixTable;
+
+    // Categories created by the run; taken out while a request works on one, so no two touch it at once
+    private final ConcurrentLinkedQueue<Long> categoryIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong categoryNames = new AtomicLong();
+
+    public LoadGenerator(URI server, LoadTestOptions options) {
+        this.server = server;
+        this.options = options;
+        this.inFlight = new Semaphore(options.maxInFlight());
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        int totalWeight = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+        mixTable = new Operation[totalWeight];
+        int slot = 0;
+        for (Map.Entry<Operation, Integer> weight : options.mix().entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                mixTable[slot++] = weight.getKey();
+            }
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        System.out.println("Offering " + options.rate() + " arrivals/s for " + options.warmup() + " warmup and "
+                + options.duration() + " measured against " + server);
+
+        for (long arrival = 0; ; arrival++) {
+            long due = start + arrival * interval;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = mixTable[ThreadLocalRandom.current().nextInt(mixTable.length)];
+            dispatch(operation, due, due >= measureFrom);
+        }
+
+        // Give stragglers a chance to complete before the report is taken
+        if (!inFlight.tryAcquire(options.maxInFlight(), 30, TimeUnit.SECONDS)) {
+            System.out.println("Some requests were still in flight when the report was taken");
+        }
+        return new LoadReport(stats, options.duration());
+    }
+
+    private void dispatch(Operation operation, long due, boolean measured) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case PRODUCT_READ -> send(operation, due, measured,
+                    get("/products/" + (CatalogSeeder.FIRST_PRODUCT_ID + random.nextInt(options.catalogSize()))), null);
+            case STOCK_REMOVE -> {
+                long hotProduct = CatalogSeeder.FIRST_PRODUCT_ID + random.nextInt(options.hotSkus());
+                for (int i = 0; i < options.burstSize(); i++) {
+                    send(operation, due, measured, put("/inventory/product/" + hotProduct + "/remove",
+                            "{\"quantity\":1}"), null);
+                }
+            }
+            case LOW_STOCK -> send(operation, due, measured, get("/inventory/low-stock"), null);
+            case CATEGORY_CRUD -> categoryStep(due, measured, random.nextDouble());
+            case INVENTORY_READ -> send(operation, due, measured, get("/inventory/product/"
+                    + (CatalogSeeder.FIRST_PRODUCT_ID + random.nextInt(options.catalogSize()))), null);
+        }
+    }
+
+    // Creates, reads, renames or deletes one of the categories this run created
+    private void categoryStep(long due, boolean measured, double roll) {
+        Long id = roll < 0.4 ? null : categoryIds.poll();
+        if (id == null) {
+            send(Operation.CATEGORY_CRUD, due, measured,
+                    post("/categories", categoryJson("Load category " + categoryNames.incrementAndGet())),
+                    body -> categoryIds.offer(readId(body)));
+        } else if (roll < 0.6) {
+            send(Operation.CATEGORY_CRUD, due, measured, get("/categories/" + id), body -> categoryIds.offer(id));
+        } else if (roll < 0.85) {
+            send(Operation.CATEGORY_CRUD, due, measured,
+                    put("/categories/" + id, categoryJson("Load category " + categoryNames.incrementAndGet())),
+                    body -> categoryIds.offer(id));
+        } else {
+            send(Operation.CATEGORY_CRUD, due, measured, delete("/categories/" + id), null);
+        }
+    }
+
+    private void send(Operation operation, long due, boolean measured, HttpRequest request,
+                      Consumer<String> onSuccess) {
+        OperationStats operationStats = stats.get(operation);
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                operationStats.drop();
+            }
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            long latency = System.nanoTime() - due;
+            inFlight.release();
+            String failure = error != null ? error.getClass().getSimpleName()
+                    : response.statusCode() >= 400 ? "HTTP " + response.statusCode() : null;
+            if (measured) {
+                operationStats.record(latency, failure);
+            }
+            if (failure == null && onSuccess != null) {
+                onSuccess.accept(response.body());
+            }
+        });
+    }
+
+    private String categoryJson(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"Created by the load test\"}";
+    }
+
+    private Long readId(String body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            return node.get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected category response: " + body, e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(server.resolve("api" + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(server.resolve("api" + path)).header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest put(String path, String json) {
+        return HttpRequest.newBuilder(server.resolve("api" + path)).header("Content-Type", JSON)
+                .PUT(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest delete(String path) {
+        return HttpRequest.newBuilder(server.resolve("api" + path)).DELETE().build();
+    }
+}
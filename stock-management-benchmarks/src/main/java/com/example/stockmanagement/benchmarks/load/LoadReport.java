@@ -0,0 +1,78 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-operation throughput, error rate and latency percentiles for the measured window. Next to the summary, every
+ * operation gets its full percentile distribution in HdrHistogram's .hgrm format, in milliseconds, which the
+ * HdrHistogram plotter can overlay to compare runs.
+ */
+public class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Operation, OperationStats> stats;
+    private final Duration window;
+
+    public LoadReport(Map<Operation, OperationStats> stats, Duration window) {
+        this.stats = stats;
+        this.window = window;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-14s %9s %9s %8s %8s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "errors", "dropped", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram(3);
+        long allFailed = 0;
+        long allDropped = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            if (operation.completed() == 0 && operation.dropped() == 0) {
+                continue;
+            }
+            printRow(out, entry.getKey().key(), operation.latencies(), operation.failed(), operation.dropped());
+            all.add(operation.latencies());
+            allFailed += operation.failed();
+            allDropped += operation.dropped();
+        }
+        printRow(out, "all", all, allFailed, allDropped);
+
+        stats.forEach((operation, operationStats) -> operationStats.failures().forEach((failure, count) ->
+                out.println("  " + operation.key() + ": " + count + " x " + failure)));
+    }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+            print(summary);
+        }
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            if (entry.getValue().completed() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(entry.getKey().key() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().latencies().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        System.out.println("Latency distributions written to " + directory.toAbsolutePath());
+    }
+
+    private void printRow(PrintStream out, String name, Histogram latencies, long failed, long dropped) {
+        long requests = latencies.getTotalCount();
+        double errorRate = requests + dropped == 0 ? 0 : 100.0 * (failed + dropped) / (requests + dropped);
+        out.printf("%-14s %9d %9.1f %7.2f%% %8d %9.2f %9.2f %9.2f %9.2f%n",
+                name, requests, requests / (window.toMillis() / 1000.0), errorRate, dropped,
+                latencies.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                latencies.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                latencies.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                latencies.getMaxValue() / MICROS_PER_MILLI);
+    }
+}
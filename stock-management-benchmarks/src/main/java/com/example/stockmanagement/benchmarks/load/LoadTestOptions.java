@@ -0,0 +1,67 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line of the load test, as {@code --name=value} pairs. The rate counts arrivals; a stock-remove arrival
+ * sends a whole burst of removals against one hot SKU.
+ */
+public record LoadTestOptions(double rate, Duration warmup, Duration duration, int catalogSize, int hotSkus,
+                              int burstSize, Map<Operation, Integer> mix, int maxInFlight, Path output) {
+
+    private static final String DEFAULT_MIX = "product-read=60,stock-remove=15,low-stock=10,category-crud=15";
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = arguments(args);
+        LoadTestOptions options = new LoadTestOptions(
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Integer.parseInt(values.getOrDefault("catalog-size", "10000")),
+                Integer.parseInt(values.getOrDefault("hot-skus", "10")),
+                Integer.parseInt(values.getOrDefault("burst-size", "5")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "5000")),
+                Path.of(values.getOrDefault("output", "load-results")));
+        if (options.rate <= 0 || options.hotSkus <= 0 || options.hotSkus > options.catalogSize
+                || options.burstSize <= 0 || options.maxInFlight <= 0) {
+            throw new IllegalArgumentException("Rate, hot SKUs, burst size and max in-flight must be positive, "
+                    + "and there cannot be more hot SKUs than products");
+        }
+        return options;
+    }
+
+    static Map<String, String> arguments(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return values;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Traffic mix entries look like operation=weight: " + entry);
+            }
+            Operation operation = Operation.fromKey(parts[0].trim());
+            if (operation == Operation.RESERVE || operation == Operation.CONFIRM || operation == Operation.RELEASE) {
+                throw new IllegalArgumentException("Reservations are load-tested by ReservationLoadRunner: " + entry);
+            }
+            weights.put(operation, Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Traffic mix needs at least one positive weight");
+        }
+        return weights;
+    }
+}
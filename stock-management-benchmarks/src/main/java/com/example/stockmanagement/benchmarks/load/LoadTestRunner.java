@@ -0,0 +1,36 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import com.example.stockmanagement.StockManagementApplication;
+import com.example.stockmanagement.benchmarks.CatalogSeeder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+
+/**
+ * Boots the whole application on a random port over a freshly seeded in-memory catalog and drives it over HTTP
+ * with the configured traffic mix, see {@link LoadTestOptions} for the flags.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        SpringApplication application = new SpringApplication(StockManagementApplication.class);
+        CatalogSeeder.seedOnStartup(application, options.catalogSize(), options.hotSkus());
+
+        // Passed as arguments so they win over application.properties
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + port + "/"), options);
+            LoadReport report = generator.run();
+            report.print(System.out);
+            report.write(options.output());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import java.util.Arrays;
+
+public enum Operation {
+    PRODUCT_READ("product-read"),
+    STOCK_REMOVE("stock-remove"),
+    LOW_STOCK("low-stock"),
+    CATEGORY_CRUD("category-crud"),
+    INVENTORY_READ("inventory-read"),
+    // Driven by ReservationLoadRunner only, not part of the traffic mix
+    RESERVE("reserve"),
+    CONFIRM("confirm"),
+    RELEASE("release");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Operation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation in traffic mix: " + key));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies in microseconds, taken from when a request was due rather than when it was sent, plus the failures
+ * by kind. Requests the generator had no room for are counted as dropped and have no latency.
+ */
+public class OperationStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    public void record(long latencyNanos, String failure) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), latencies.getHighestTrackableValue()));
+        if (failure != null) {
+            failed.increment();
+            failures.computeIfAbsent(failure, key -> new LongAdder()).increment();
+        }
+    }
+
+    public void drop() {
+        dropped.increment();
+    }
+
+    public Histogram latencies() {
+        return latencies;
+    }
+
+    public long completed() {
+        return latencies.getTotalCount();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public Map<String, Long> failures() {
+        Map<String, Long> counts = new TreeMap<>();
+        failures.forEach((failure, count) -> counts.put(failure, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import com.example.stockmanagement.benchmarks.CatalogSeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Reservations in bulk over HTTP: opens {@code reservations} of them so that all are held at once, closes them
+ * again half by confirming and half by releasing, then opens the same number with a short TTL and waits for the
+ * expiry queue to drain them. After each phase the database must agree with what the requests did; a mismatch
+ * fails the run.
+ */
+public class ReservationLoad {
+
+    private static final String JSON = "application/json";
+    // Long enough that none of the first batch can expire before it is closed
+    private static final long HELD_TTL_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private final URI server;
+    private final ReservationLoadOptions options;
+    private final JdbcTemplate jdbcTemplate;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final List<String> mismatches = new ArrayList<>();
+
+    public ReservationLoad(URI server, ReservationLoadOptions options, JdbcTemplate jdbcTemplate) {
+        this.server = server;
+        this.options = options;
+        this.jdbcTemplate = jdbcTemplate;
+        for (Operation operation : List.of(Operation.RESERVE, Operation.CONFIRM, Operation.RELEASE)) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        long stockBefore = jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM inventory", Long.class);
+        long start = System.nanoTime();
+
+        ConcurrentLinkedQueue<Long> held = new ConcurrentLinkedQueue<>();
+        phase("Opening " + options.reservations() + " reservations", options.reservations(),
+                i -> send(Operation.RESERVE, reserve(i, HELD_TTL_SECONDS), held));
+        expect("open reservations", activeReservations(), options.reservations());
+        expect("reserved units", reservedUnits(), options.reservations());
+
+        List<Long> ids = new ArrayList<>(held);
+        phase("Confirming and releasing them", ids.size(), i -> i % 2 == 0
+                ? send(Operation.CONFIRM, post("/reservations/" + ids.get(i) + "/confirm", ""), null)
+                : send(Operation.RELEASE, post("/reservations/" + ids.get(i) + "/release", ""), null));
+        Duration window = Duration.ofNanos(System.nanoTime() - start);
+        long confirmed = (ids.size() + 1) / 2;
+        expect("open reservations", activeReservations(), 0);
+        expect("reserved units", reservedUnits(), 0);
+        expect("stock removed by confirmations",
+                stockBefore - jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM inventory", Long.class), confirmed);
+
+        expireAll();
+
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Reservation load test left the database inconsistent: " + mismatches);
+        }
+        return new LoadReport(stats, window);
+    }
+
+    // Opens a batch that expires on its own and measures how long after its deadline the last one is released
+    private void expireAll() throws InterruptedException {
+        long ttlSeconds = options.expiryTtl().toSeconds();
+        phase("Opening " + options.reservations() + " reservations with a " + ttlSeconds + " s TTL",
+                options.reservations(), i -> send(null, reserve(i, ttlSeconds), null));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long giveUp = deadline + TimeUnit.SECONDS.toNanos(60);
+        long active = activeReservations();
+        while (active > 0 && System.nanoTime() < giveUp) {
+            Thread.sleep(50);
+            active = activeReservations();
+        }
+        System.out.printf("Expiry: %d still open, last one released %d ms after the deadline%n",
+                active, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deadline));
+        expect("reservations still open after expiry", active, 0);
+        expect("reserved units after expiry", reservedUnits(), 0);
+    }
+
+    // Sends count requests, at most options.concurrency() at a time, and waits for all of them
+    private void phase(String name, int count, IntFunction<CompletableFuture<?>> request)
+            throws InterruptedException {
+        System.out.println(name);
+        Semaphore inFlight = new Semaphore(options.concurrency());
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            request.apply(i).whenComplete((result, error) -> inFlight.release());
+        }
+        inFlight.acquire(options.concurrency());
+    }
+
+    // Unmeasured when operation is null; ids collects the id of every reservation the request created
+    private CompletableFuture<?> send(Operation operation, HttpRequest request, ConcurrentLinkedQueue<Long> ids) {
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            String failure = error != null ? error.getClass().getSimpleName()
+                    : response.statusCode() >= 400 ? "HTTP " + response.statusCode() : null;
+            if (operation != null) {
+                stats.get(operation).record(System.nanoTime() - sent, failure);
+            }
+            if (failure == null && ids != null) {
+                ids.add(readId(response.body()));
+            }
+        });
+    }
+
+    private HttpRequest reserve(int index, long ttlSeconds) {
+        long productId = CatalogSeeder.FIRST_PRODUCT_ID + index % options.catalogSize();
+        return post("/reservations", "{\"productId\":" + productId + ",\"quantity\":1,\"ttlSeconds\":"
+                + ttlSeconds + "}");
+    }
+
+    private long activeReservations() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations WHERE status = 'ACTIVE'", Long.class);
+    }
+
+    private long reservedUnits() {
+        return jdbcTemplate.queryForObject("SELECT SUM(reserved) FROM inventory", Long.class);
+    }
+
+    private void expect(String what, long actual, long expected) {
+        System.out.println("  " + what + ": " + actual + (actual == expected ? "" : " (expected " + expected + ")"));
+        if (actual != expected) {
+            mismatches.add(what + " was " + actual + ", expected " + expected);
+        }
+    }
+
+    private Long readId(String body) {
+        try {
+            return objectMapper.readTree(body).get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected reservation response: " + body, e);
+        }
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(server.resolve("api" + path)).header("Content-Type", JSON)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Command line of the reservation load test, as {@code --name=value} pairs. All reservations are spread evenly over
+ * the catalog; {@code concurrency} caps how many requests are out at once.
+ */
+public record ReservationLoadOptions(int reservations, int concurrency, int catalogSize, Duration expiryTtl,
+                                     Path output) {
+
+    public static ReservationLoadOptions parse(String[] args) {
+        Map<String, String> values = LoadTestOptions.arguments(args);
+        ReservationLoadOptions options = new ReservationLoadOptions(
+                Integer.parseInt(values.getOrDefault("reservations", "10000")),
+                Integer.parseInt(values.getOrDefault("concurrency", "200")),
+                Integer.parseInt(values.getOrDefault("catalog-size", "1000")),
+                Duration.parse(values.getOrDefault("expiry-ttl", "PT5S")),
+                Path.of(values.getOrDefault("output", "reservation-results")));
+        if (options.reservations <= 0 || options.concurrency <= 0 || options.catalogSize <= 0) {
+            throw new IllegalArgumentException("Reservations, concurrency and catalog size must be positive");
+        }
+        if (options.expiryTtl.toSeconds() < 1) {
+            throw new IllegalArgumentException("The expiry TTL must be at least one second");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.stockmanagement.benchmarks.load;
+
+import com.example.stockmanagement.StockManagementApplication;
+import com.example.stockmanagement.benchmarks.CatalogSeeder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+
+/**
+ * Boots the whole application on a random port over a freshly seeded in-memory catalog and holds, closes and
+ * expires thousands of reservations at once over HTTP, see {@link ReservationLoad} for the phases and
+ * {@link ReservationLoadOptions} for the flags. Every product gets the hot quantity, so no reservation can run out
+ * of stock.
+ */
+public class ReservationLoadRunner {
+
+    public static void main(String[] args) throws Exception {
+        ReservationLoadOptions options = ReservationLoadOptions.parse(args);
+
+        SpringApplication application = new SpringApplication(StockManagementApplication.class);
+        CatalogSeeder.seedOnStartup(application, options.catalogSize(), options.catalogSize());
+
+        // Passed as arguments so they win over application.properties
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:reservations;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ReservationLoad load = new ReservationLoad(URI.create("http://localhost:" + port + "/"), options,
+                    context.getBean(JdbcTemplate.class));
+            LoadReport report = load.run();
+            report.print(System.out);
+            report.write(options.output());
+        }
+    }
+}
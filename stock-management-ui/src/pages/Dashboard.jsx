@@ -1,28 +1,16 @@
 import { useState, useEffect } from 'react';
 import { Row, Col, Card, Alert } from 'react-bootstrap';
-import { getProducts, getCategories, getInventory, getLowStockItems } from '../services/api';
+import { getDashboardSummary, subscribeToInventoryEvents } from '../services/api';
 
 const Dashboard = () => {
-  const [products, setProducts] = useState([]);
-  const [categories, setCategories] = useState([]);
-  const [inventory, setInventory] = useState([]);
-  const [lowStockItems, setLowStockItems] = useState([]);
+  const [summary, setSummary] = useState(null);
   const [error, setError] = useState(null);
 
   useEffect(() => {
     const fetchData = async () => {
       try {
-        const [productsRes, categoriesRes, inventoryRes, lowStockRes] = await Promise.all([
-          getProducts(),
-          getCategories(),
-          getInventory(),
-          getLowStockItems()
-        ]);
-        
-        setProducts(productsRes.data);
-        setCategories(categoriesRes.data);
-        setInventory(inventoryRes.data);
-        setLowStockItems(lowStockRes.data);
+        const response = await getDashboardSummary();
+        setSummary(response.data);
       } catch (err) {
         setError('Failed to load dashboard data');
         console.error(err);
@@ -30,8 +18,16 @@ const Dashboard = () => {
     };
 
     fetchData();
+
+    // Reload when an item crosses its minimum stock level, or when the stream says events were missed
+    const events = subscribeToInventoryEvents();
+    ['low-stock', 'restocked', 'reset', 'overflow'].forEach((name) => events.addEventListener(name, fetchData));
+    return () => events.close();
   }, []);
 
+  const categories = summary?.categories ?? [];
+  const lowStockItems = summary?.lowStockItems ?? [];
+
   return (
     <div>
       <h1 className="mb-4">Dashboard</h1>
@@ -44,7 +40,7 @@ const Dashboard = () => {
             <Card.Body>
               <div className="dashboard-icon">📦</div>
               <Card.Title>Total Products</Card.Title>
-              <Card.Text className="fs-1">{products.length}</Card.Text>
+              <Card.Text className="fs-1">{summary?.productCount ?? 0}</Card.Text>
             </Card.Body>
           </Card>
         </Col>
@@ -54,7 +50,7 @@ const Dashboard = () => {
             <Card.Body>
               <div className="dashboard-icon">🏷️</div>
               <Card.Title>Categories</Card.Title>
-              <Card.Text className="fs-1">{categories.length}</Card.Text>
+              <Card.Text className="fs-1">{summary?.categoryCount ?? 0}</Card.Text>
             </Card.Body>
           </Card>
         </Col>
@@ -64,9 +60,7 @@ const Dashboard = () => {
             <Card.Body>
               <div className="dashboard-icon">🔢</div>
               <Card.Title>Total Items in Stock</Card.Title>
-              <Card.Text className="fs-1">
-                {inventory.reduce((total, item) => total + item.quantity, 0)}
-              </Card.Text>
+              <Card.Text className="fs-1">{summary?.totalUnits ?? 0}</Card.Text>
             </Card.Body>
           </Card>
         </Col>
@@ -76,7 +70,7 @@ const Dashboard = () => {
             <Card.Body>
               <div className="dashboard-icon">⚠️</div>
               <Card.Title>Low Stock Items</Card.Title>
-              <Card.Text className="fs-1">{lowStockItems.length}</Card.Text>
+              <Card.Text className="fs-1">{summary?.lowStockCount ?? 0}</Card.Text>
             </Card.Body>
           </Card>
         </Col>
@@ -89,9 +83,9 @@ const Dashboard = () => {
             <Card.Body>
               {lowStockItems.length > 0 ? (
                 <ul className="list-group">
-                  {lowStockItems.slice(0, 5).map((item) => (
-                    <li key={item.id} className="list-group-item d-flex justify-content-between align-items-center">
-                      {item.product.name}
+                  {lowStockItems.map((item) => (
+                    <li key={item.inventoryId} className="list-group-item d-flex justify-content-between align-items-center">
+                      {item.productName}
                       <span className="badge bg-warning rounded-pill">
                         {item.quantity} / {item.minStockLevel}
                       </span>
@@ -112,10 +106,10 @@ const Dashboard = () => {
               {categories.length > 0 ? (
                 <ul className="list-group">
                   {categories.map((category) => (
-                    <li key={category.id} className="list-group-item d-flex justify-content-between align-items-center">
-                      {category.name}
+                    <li key={category.categoryId} className="list-group-item d-flex justify-content-between align-items-center">
+                      {category.categoryName}
                       <span className="badge bg-primary rounded-pill">
-                        {products.filter(p => p.category && p.category.id === category.id).length} products
+                        {category.productCount} products
                       </span>
                     </li>
                   ))}
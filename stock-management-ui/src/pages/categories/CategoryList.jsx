@@ -6,14 +6,17 @@ import { toast } from 'react-toastify';
 
 const CategoryList = () => {
   const [categories, setCategories] = useState([]);
+  const [next, setNext] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
-  const fetchCategories = async () => {
+  // Without a cursor this starts over at the first page; with one it appends the page after it
+  const fetchCategories = async (after) => {
     try {
       setLoading(true);
-      const response = await getCategories();
-      setCategories(response.data);
+      const response = await getCategories(after);
+      setCategories(prev => after ? [...prev, ...response.data.items] : response.data.items);
+      setNext(response.data.next);
       setError(null);
     } catch (err) {
       setError('Failed to load categories');
@@ -54,7 +57,7 @@ const CategoryList = () => {
 
       <Card>
         <Card.Body>
-          {loading ? (
+          {loading && categories.length === 0 ? (
             <p>Loading categories...</p>
           ) : categories.length > 0 ? (
             <Table striped bordered hover responsive>
@@ -91,6 +94,11 @@ const CategoryList = () => {
           ) : (
             <p>No categories found.</p>
           )}
+          {next && (
+            <Button variant="outline-secondary" onClick={() => fetchCategories(next)} disabled={loading}>
+              {loading ? 'Loading...' : 'Load more'}
+            </Button>
+          )}
         </Card.Body>
       </Card>
     </div>
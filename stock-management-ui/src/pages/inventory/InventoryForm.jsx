@@ -1,7 +1,7 @@
 import { useState, useEffect } from 'react';
 import { Form, Button, Card, Alert } from 'react-bootstrap';
 import { useNavigate, useParams } from 'react-router-dom';
-import { getInventoryItem, createInventory, updateInventory, getProducts } from '../../services/api';
+import { getInventoryItem, createInventory, updateInventory, searchProducts } from '../../services/api';
 import { toast } from 'react-toastify';
 
 const InventoryForm = () => {
@@ -15,22 +15,12 @@ const InventoryForm = () => {
     minStockLevel: 0
   });
   const [products, setProducts] = useState([]);
+  const [productSearch, setProductSearch] = useState('');
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState(null);
   const [validated, setValidated] = useState(false);
 
   useEffect(() => {
-    const fetchProducts = async () => {
-      try {
-        const response = await getProducts();
-        setProducts(response.data);
-      } catch (err) {
-        console.error('Failed to load products', err);
-      }
-    };
-
-    fetchProducts();
-
     if (isEditMode) {
       const fetchInventory = async () => {
         try {
@@ -50,6 +40,23 @@ const InventoryForm = () => {
     }
   }, [id, isEditMode]);
 
+  // The product to stock is picked from server-side search hits rather than a list of the whole catalog
+  useEffect(() => {
+    if (isEditMode || !productSearch.trim()) {
+      setProducts([]);
+      return;
+    }
+    const timeout = setTimeout(async () => {
+      try {
+        const response = await searchProducts(productSearch, 0, 20);
+        setProducts(response.data.items);
+      } catch (err) {
+        console.error('Failed to search products', err);
+      }
+    }, 200);
+    return () => clearTimeout(timeout);
+  }, [productSearch, isEditMode]);
+
   const handleChange = (e) => {
     const { name, value } = e.target;
     
@@ -96,12 +103,8 @@ const InventoryForm = () => {
     }
   };
 
-  // Filter out products that already have inventory items (for create mode only)
-  const availableProducts = isEditMode
-    ? products
-    : products.filter(product => 
-        !product.inventoryId || product.id === inventory.product?.id
-      );
+  // An existing item keeps its product, which came along with the item itself
+  const availableProducts = isEditMode && inventory.product?.name ? [inventory.product] : products;
 
   return (
     <div>
@@ -114,6 +117,16 @@ const InventoryForm = () => {
           <Form noValidate validated={validated} onSubmit={handleSubmit} className="form-container">
             <Form.Group className="mb-3" controlId="inventoryProduct">
               <Form.Label>Product</Form.Label>
+              {!isEditMode && (
+                <Form.Control
+                  type="text"
+                  className="mb-2"
+                  placeholder="Search by name, SKU or description"
+                  value={productSearch}
+                  onChange={(e) => setProductSearch(e.target.value)}
+                  disabled={loading}
+                />
+              )}
               <Form.Select
                 name="productId"
                 value={inventory.product?.id || ''}
@@ -6,6 +6,7 @@ import { toast } from 'react-toastify';
 
 const InventoryList = () => {
   const [inventory, setInventory] = useState([]);
+  const [next, setNext] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   
@@ -15,11 +16,13 @@ const InventoryList = () => {
   const [selectedItem, setSelectedItem] = useState(null);
   const [quantity, setQuantity] = useState(1);
 
-  const fetchInventory = async () => {
+  // Without a cursor this starts over at the first page; with one it appends the page after it
+  const fetchInventory = async (after) => {
     try {
       setLoading(true);
-      const response = await getInventory();
-      setInventory(response.data);
+      const response = await getInventory(after);
+      setInventory(prev => after ? [...prev, ...response.data.items] : response.data.items);
+      setNext(response.data.next);
       setError(null);
     } catch (err) {
       setError('Failed to load inventory');
@@ -56,10 +59,10 @@ const InventoryList = () => {
   const handleStockAdjustment = async () => {
     try {
       if (modalMode === 'add') {
-        await addStock(selectedItem.product.id, quantity);
+        await addStock(selectedItem.productId, quantity);
         toast.success(`Added ${quantity} items to stock`);
       } else {
-        await removeStock(selectedItem.product.id, quantity);
+        await removeStock(selectedItem.productId, quantity);
         toast.success(`Removed ${quantity} items from stock`);
       }
       setShowModal(false);
@@ -83,7 +86,7 @@ const InventoryList = () => {
 
       <Card>
         <Card.Body>
-          {loading ? (
+          {loading && inventory.length === 0 ? (
             <p>Loading inventory...</p>
           ) : inventory.length > 0 ? (
             <Table striped bordered hover responsive>
@@ -102,7 +105,7 @@ const InventoryList = () => {
                 {inventory.map((item) => (
                   <tr key={item.id} className={item.quantity <= item.minStockLevel ? 'low-stock' : ''}>
                     <td>{item.id}</td>
-                    <td>{item.product.name}</td>
+                    <td>{item.productName}</td>
                     <td>{item.quantity}</td>
                     <td>{item.minStockLevel}</td>
                     <td>
@@ -149,6 +152,11 @@ const InventoryList = () => {
           ) : (
             <p>No inventory items found.</p>
           )}
+          {next && (
+            <Button variant="outline-secondary" onClick={() => fetchInventory(next)} disabled={loading}>
+              {loading ? 'Loading...' : 'Load more'}
+            </Button>
+          )}
         </Card.Body>
       </Card>
 
@@ -156,7 +164,7 @@ const InventoryList = () => {
       <Modal show={showModal} onHide={() => setShowModal(false)}>
         <Modal.Header closeButton>
           <Modal.Title>
-            {modalMode === 'add' ? 'Add Stock' : 'Remove Stock'} - {selectedItem?.product.name}
+            {modalMode === 'add' ? 'Add Stock' : 'Remove Stock'} - {selectedItem?.productName}
           </Modal.Title>
         </Modal.Header>
         <Modal.Body>
@@ -41,7 +41,7 @@ const LowStockItems = () => {
 
   const handleAddStock = async () => {
     try {
-      await addStock(selectedItem.product.id, quantity);
+      await addStock(selectedItem.productId, quantity);
       toast.success(`Added ${quantity} items to stock`);
       setShowModal(false);
       fetchLowStockItems();
@@ -81,7 +81,7 @@ const LowStockItems = () => {
               <tbody>
                 {lowStockItems.map((item) => (
                   <tr key={item.id} className="low-stock">
-                    <td>{item.product.name}</td>
+                    <td>{item.productName}</td>
                     <td>{item.quantity}</td>
                     <td>{item.minStockLevel}</td>
                     <td>{item.minStockLevel - item.quantity}</td>
@@ -109,7 +109,7 @@ const LowStockItems = () => {
       <Modal show={showModal} onHide={() => setShowModal(false)}>
         <Modal.Header closeButton>
           <Modal.Title>
-            Restock - {selectedItem?.product.name}
+            Restock - {selectedItem?.productName}
           </Modal.Title>
         </Modal.Header>
         <Modal.Body>
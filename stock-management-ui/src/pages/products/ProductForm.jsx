@@ -1,7 +1,7 @@
 import { useState, useEffect } from 'react';
 import { Form, Button, Card, Alert } from 'react-bootstrap';
 import { useNavigate, useParams } from 'react-router-dom';
-import { getProduct, createProduct, updateProduct, getCategories } from '../../services/api';
+import { getProduct, createProduct, updateProduct, getCategoryOptions } from '../../services/api';
 import { toast } from 'react-toastify';
 
 const ProductForm = () => {
@@ -24,8 +24,8 @@ const ProductForm = () => {
   useEffect(() => {
     const fetchCategories = async () => {
       try {
-        const response = await getCategories();
-        setCategories(response.data);
+        const response = await getCategoryOptions();
+        setCategories(response.data.items);
       } catch (err) {
         console.error('Failed to load categories', err);
       }
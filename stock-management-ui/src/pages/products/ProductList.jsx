@@ -1,21 +1,33 @@
 import { useState, useEffect } from 'react';
 import { Table, Button, Card, Alert, Form } from 'react-bootstrap';
 import { Link } from 'react-router-dom';
-import { getProducts, deleteProduct, getCategories } from '../../services/api';
+import { getProducts, getProductsByCategory, deleteProduct, getCategoryOptions, searchProducts } from '../../services/api';
 import { toast } from 'react-toastify';
 
 const ProductList = () => {
   const [products, setProducts] = useState([]);
+  const [next, setNext] = useState(null);
   const [categories, setCategories] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [selectedCategory, setSelectedCategory] = useState('');
+  const [searchTerm, setSearchTerm] = useState('');
+  const [searchResults, setSearchResults] = useState(null);
 
-  const fetchProducts = async () => {
+  // A selected category is listed whole by its own endpoint; otherwise the list is paged, starting over at the
+  // first page without a cursor and appending the page after it with one
+  const fetchProducts = async (after) => {
     try {
       setLoading(true);
-      const response = await getProducts();
-      setProducts(response.data);
+      if (selectedCategory) {
+        const response = await getProductsByCategory(selectedCategory);
+        setProducts(response.data);
+        setNext(null);
+      } else {
+        const response = await getProducts(after);
+        setProducts(prev => after ? [...prev, ...response.data.items] : response.data.items);
+        setNext(response.data.next);
+      }
       setError(null);
     } catch (err) {
       setError('Failed to load products');
@@ -27,18 +39,41 @@ const ProductList = () => {
 
   const fetchCategories = async () => {
     try {
-      const response = await getCategories();
-      setCategories(response.data);
+      const response = await getCategoryOptions();
+      setCategories(response.data.items);
     } catch (err) {
       console.error('Failed to load categories', err);
     }
   };
 
   useEffect(() => {
-    fetchProducts();
     fetchCategories();
   }, []);
 
+  useEffect(() => {
+    fetchProducts();
+  }, [selectedCategory]);
+
+  // Searches run on the server; wait for a pause in typing before sending one
+  useEffect(() => {
+    if (!searchTerm.trim()) {
+      setSearchResults(null);
+      return;
+    }
+    const timeout = setTimeout(async () => {
+      try {
+        const response = await searchProducts(searchTerm, 0, 100);
+        setSearchResults(response.data.items.map(hit => ({
+          ...hit,
+          categoryName: categories.find(category => category.id === hit.categoryId)?.name
+        })));
+      } catch (err) {
+        console.error('Failed to search products', err);
+      }
+    }, 200);
+    return () => clearTimeout(timeout);
+  }, [searchTerm, categories]);
+
   const handleDelete = async (id) => {
     if (window.confirm('Are you sure you want to delete this product?')) {
       try {
@@ -53,8 +88,9 @@ const ProductList = () => {
     }
   };
 
-  const filteredProducts = selectedCategory
-    ? products.filter(product => product.category && product.category.id === parseInt(selectedCategory))
+  // Search hits come from the whole catalog, so the category filter applies to them here
+  const filteredProducts = searchResults
+    ? searchResults.filter(product => !selectedCategory || product.categoryId === parseInt(selectedCategory))
     : products;
 
   return (
@@ -70,6 +106,15 @@ const ProductList = () => {
 
       <Card className="mb-4">
         <Card.Body>
+          <Form.Group className="mb-3">
+            <Form.Label>Search</Form.Label>
+            <Form.Control
+              type="text"
+              placeholder="Name, SKU or description"
+              value={searchTerm}
+              onChange={(e) => setSearchTerm(e.target.value)}
+            />
+          </Form.Group>
           <Form.Group>
             <Form.Label>Filter by Category</Form.Label>
             <Form.Select
@@ -89,7 +134,7 @@ const ProductList = () => {
 
       <Card>
         <Card.Body>
-          {loading ? (
+          {loading && products.length === 0 ? (
             <p>Loading products...</p>
           ) : filteredProducts.length > 0 ? (
             <Table striped bordered hover responsive>
@@ -110,7 +155,7 @@ const ProductList = () => {
                     <td>{product.name}</td>
                     <td>{product.sku}</td>
                     <td>${product.price}</td>
-                    <td>{product.category ? product.category.name : 'N/A'}</td>
+                    <td>{product.categoryName || 'N/A'}</td>
                     <td>
                       <Link to={`/products/edit/${product.id}`} className="btn btn-sm btn-info me-2">
                         Edit
@@ -130,6 +175,11 @@ const ProductList = () => {
           ) : (
             <p>No products found.</p>
           )}
+          {next && !searchResults && (
+            <Button variant="outline-secondary" onClick={() => fetchProducts(next)} disabled={loading}>
+              {loading ? 'Loading...' : 'Load more'}
+            </Button>
+          )}
         </Card.Body>
       </Card>
     </div>
@@ -9,23 +9,30 @@ const api = axios.create({
   },
 });
 
+// List endpoints return one keyset page at a time ({ items, next }); pass the previous page's next to get the one after
+export const PAGE_SIZE = 50;
+const getPage = (url, after) => api.get(url, { params: { limit: PAGE_SIZE, after } });
+
 // Category API
-export const getCategories = () => api.get('/categories');
+export const getCategories = (after) => getPage('/categories', after);
+// Category pickers: a single request for the largest page the endpoint serves, sorted by name
+export const getCategoryOptions = () => api.get('/categories', { params: { limit: 1000, sort: 'name' } });
 export const getCategory = (id) => api.get(`/categories/${id}`);
 export const createCategory = (category) => api.post('/categories', category);
 export const updateCategory = (id, category) => api.put(`/categories/${id}`, category);
 export const deleteCategory = (id) => api.delete(`/categories/${id}`);
 
 // Product API
-export const getProducts = () => api.get('/products');
+export const getProducts = (after) => getPage('/products', after);
 export const getProduct = (id) => api.get(`/products/${id}`);
 export const getProductsByCategory = (categoryId) => api.get(`/products/category/${categoryId}`);
+export const searchProducts = (q, offset = 0, limit = 20) => api.get('/products/search', { params: { q, offset, limit } });
 export const createProduct = (product) => api.post('/products', product);
 export const updateProduct = (id, product) => api.put(`/products/${id}`, product);
 export const deleteProduct = (id) => api.delete(`/products/${id}`);
 
 // Inventory API
-export const getInventory = () => api.get('/inventory');
+export const getInventory = (after) => getPage('/inventory', after);
 export const getInventoryItem = (id) => api.get(`/inventory/${id}`);
 export const getInventoryByProduct = (productId) => api.get(`/inventory/product/${productId}`);
 export const getLowStockItems = () => api.get('/inventory/low-stock');
@@ -35,5 +42,9 @@ export const updateStock = (productId, quantity) => api.put(`/inventory/product/
 export const addStock = (productId, quantity) => api.put(`/inventory/product/${productId}/add`, { quantity });
 export const removeStock = (productId, quantity) => api.put(`/inventory/product/${productId}/remove`, { quantity });
 export const deleteInventory = (id) => api.delete(`/inventory/${id}`);
+export const subscribeToInventoryEvents = () => new EventSource(`${API_BASE_URL}/inventory/events`);
+
+// Dashboard API
+export const getDashboardSummary = () => api.get('/dashboard/summary');
 
 export default api;
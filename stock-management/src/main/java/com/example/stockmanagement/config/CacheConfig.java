@@ -0,0 +1,44 @@
+package com.example.stockmanagement.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_SKU = "productsBySku";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORIES_BY_NAME = "categoriesByName";
+    public static final String DASHBOARD_SUMMARY = "dashboardSummary";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${stock.cache.maximum-size:10000}") long maximumSize,
+            @Value("${stock.cache.time-to-live:10m}") Duration timeToLive,
+            @Value("${stock.dashboard.cache-ttl:5s}") Duration dashboardTimeToLive) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                PRODUCTS, PRODUCTS_BY_SKU, CATEGORIES, CATEGORIES_BY_NAME);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats());
+        // Lookups that find nothing throw, so there is never a null to cache
+        cacheManager.setAllowNullValues(false);
+        // The summary is a handful of aggregates; a few seconds of staleness saves re-running them per page view
+        cacheManager.registerCustomCache(DASHBOARD_SUMMARY, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(dashboardTimeToLive)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.stockmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * With virtual threads every request gets its own thread, so thousands of them can ask the pool for a connection
+ * at once. They queue here on a fair semaphore with one permit per pooled connection, in arrival order, instead of
+ * all spinning on the pool's hand-off; a permit is held until the connection is closed.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConnectionPoolGuard implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolGuard.class);
+
+    private final long waitTimeoutNanos;
+
+    public ConnectionPoolGuard(@Value("${stock.datasource.connection-wait-timeout:30s}") Duration waitTimeout) {
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // The DataSource may already be wrapped, for example by the slow query log
+        if (bean instanceof DataSource dataSource && !(bean instanceof GuardedDataSource)) {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                    log.info("Connection pool guarded by {} permits", pool.getMaximumPoolSize());
+                    return new GuardedDataSource(dataSource, pool.getMaximumPoolSize());
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not inspect DataSource " + beanName, e);
+            }
+        }
+        return bean;
+    }
+
+    private class GuardedDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+
+        GuardedDataSource(DataSource target, int poolSize) {
+            super(target);
+            this.permits = new Semaphore(poolSize, true);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return released(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return released(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(waitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new SQLTransientConnectionException("No database connection became free within "
+                            + Duration.ofNanos(waitTimeoutNanos) + " (" + permits.getQueueLength() + " waiting)");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+            }
+        }
+
+        // Gives the permit back on the first close only; closing twice is allowed by JDBC
+        private Connection released(Connection connection) {
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals" -> {
+                                return proxy == args[0];
+                            }
+                            case "hashCode" -> {
+                                return System.identityHashCode(proxy);
+                            }
+                            case "close" -> {
+                                if (closed.compareAndSet(false, true)) {
+                                    try {
+                                        connection.close();
+                                    } finally {
+                                        permits.release();
+                                    }
+                                }
+                                return null;
+                            }
+                            default -> {
+                                try {
+                                    return method.invoke(connection, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                            }
+                        }
+                    });
+        }
+    }
+}
@@ -3,15 +3,18 @@ package com.example.stockmanagement.config;
 import com.example.stockmanagement.model.Category;
 import com.example.stockmanagement.model.Inventory;
 import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.model.Provenance;
 import com.example.stockmanagement.repository.CategoryRepository;
 import com.example.stockmanagement.repository.InventoryRepository;
 import com.example.stockmanagement.repository.ProductRepository;
+import com.example.stockmanagement.service.StockLedgerService;
 
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -19,14 +22,17 @@ public class DataInitializer implements CommandLineRunner {
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
+    private final StockLedgerService stockLedgerService;
 
     public DataInitializer(
             CategoryRepository categoryRepository,
             ProductRepository productRepository,
-            InventoryRepository inventoryRepository) {
+            InventoryRepository inventoryRepository,
+            StockLedgerService stockLedgerService) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
         this.inventoryRepository = inventoryRepository;
+        this.stockLedgerService = stockLedgerService;
     }
 
     @Override
@@ -44,7 +50,9 @@ public class DataInitializer implements CommandLineRunner {
         Category clothing = new Category(null, "Clothing", "Apparel and fashion items");
         Category furniture = new Category(null, "Furniture", "Home and office furniture");
 
-        categoryRepository.saveAll(Arrays.asList(electronics, clothing, furniture));
+        List<Category> categories = Arrays.asList(electronics, clothing, furniture);
+        categories.forEach(category -> category.setProvenance(Provenance.SEED));
+        categoryRepository.saveAll(categories);
         System.out.println("Created 3 categories");
 
         // Create products
@@ -57,7 +65,9 @@ public class DataInitializer implements CommandLineRunner {
         Product desk = new Product(null, "Desk", "Office desk", new BigDecimal("150.00"), "FURN-001", furniture);
         Product chair = new Product(null, "Chair", "Office chair", new BigDecimal("120.00"), "FURN-002", furniture);
 
-        productRepository.saveAll(Arrays.asList(laptop, smartphone, tShirt, jeans, desk, chair));
+        List<Product> products = Arrays.asList(laptop, smartphone, tShirt, jeans, desk, chair);
+        products.forEach(product -> product.setProvenance(Provenance.SEED));
+        productRepository.saveAll(products);
         System.out.println("Created 6 products");
 
         // Create inventory
@@ -68,9 +78,10 @@ public class DataInitializer implements CommandLineRunner {
         Inventory deskInventory = new Inventory(null, desk, 5, 2, null);
         Inventory chairInventory = new Inventory(null, chair, 8, 3, null);
 
-        inventoryRepository.saveAll(Arrays.asList(
+        List<Inventory> inventories = inventoryRepository.saveAll(Arrays.asList(
                 laptopInventory, smartphoneInventory, tShirtInventory,
                 jeansInventory, deskInventory, chairInventory));
+        stockLedgerService.recordOpeningBalances(inventories);
         System.out.println("Created 6 inventory records");
         System.out.println("Sample data initialization completed successfully!");
     }
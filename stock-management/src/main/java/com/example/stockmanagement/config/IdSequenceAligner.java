@@ -0,0 +1,122 @@
+package com.example.stockmanagement.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Restarts every id sequence after the highest id already in its table, so rows created with identity columns or
+ * inserted with explicit ids keep their ids. This is a one-off migration: it runs as soon as Hibernate has updated
+ * the schema, before anything could have allocated an id block from the old sequence values, and only the first
+ * time a database starts with the current optimizer and allocation size. Later startups find its entry in
+ * {@code schema_migrations} and leave sequences that other instances may be allocating from alone.
+ */
+@Component
+public class IdSequenceAligner implements SessionFactoryObserver, HibernatePropertiesCustomizer {
+
+    // Table -> sequence feeding its ids, see PooledSequenceGenerator
+    private static final Map<String, String> ID_SEQUENCES = Map.of(
+            "categories", "category_seq",
+            "products", "product_seq",
+            "inventory", "inventory_seq",
+            "stock_movements", "stock_movement_seq",
+            "stock_snapshots", "stock_snapshot_seq",
+            "reservations", "reservation_seq",
+            "sync_tombstones", "sync_tombstone_seq");
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    private static final String MIGRATIONS_TABLE = "schema_migrations";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int allocationSize;
+    private final String optimizer;
+
+    public IdSequenceAligner(
+            DataSource dataSource,
+            @Value("${spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE_SETTING + ":"
+                    + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize,
+            @Value("${spring.jpa.properties." + PooledSequenceGenerator.OPTIMIZER_SETTING + ":"
+                    + PooledSequenceGenerator.DEFAULT_OPTIMIZER + "}") String optimizer) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.allocationSize = allocationSize;
+        this.optimizer = optimizer;
+        // Fail at startup rather than on the first restart
+        restartValue(optimizer, 0, allocationSize);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.SESSION_FACTORY_OBSERVER, this);
+    }
+
+    @Override
+    public void sessionFactoryCreated(SessionFactory factory) {
+        migrate();
+    }
+
+    /**
+     * Aligns the sequences unless this database already has. The entry is claimed before aligning, so of several
+     * instances starting on the same database only one restarts the sequences; if aligning fails the claim is
+     * given up again and the next startup retries.
+     */
+    void migrate() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + MIGRATIONS_TABLE
+                + " (name VARCHAR(200) PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+        String name = migrationName();
+        try {
+            jdbcTemplate.update("INSERT INTO " + MIGRATIONS_TABLE + " (name, applied_at) VALUES (?, CURRENT_TIMESTAMP)",
+                    name);
+        } catch (DuplicateKeyException alreadyApplied) {
+            return;
+        }
+        try {
+            align();
+        } catch (RuntimeException e) {
+            jdbcTemplate.update("DELETE FROM " + MIGRATIONS_TABLE + " WHERE name = ?", name);
+            throw e;
+        }
+        log.info("Aligned the id sequences with their tables ({})", name);
+    }
+
+    // A different optimizer or allocation size needs the sequences restarted with a new increment
+    String migrationName() {
+        return "align-id-sequences:" + optimizer + ":" + allocationSize;
+    }
+
+    /**
+     * Restarts the sequences unconditionally. Only for setup code that has just inserted rows with explicit ids and
+     * runs before anything else can allocate ids, like the benchmark seeder; never call it from request handling.
+     */
+    public void align() {
+        ID_SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence
+                    + " RESTART WITH " + restartValue(optimizer, maxId != null ? maxId : 0, allocationSize)
+                    + " INCREMENT BY " + allocationSize);
+        });
+    }
+
+    /**
+     * The sequence value that makes the optimizer's first id {@code maxId + 1}. pooled-lo reads a sequence value
+     * as the lowest id of its block, pooled reads it as the highest, so pooled has to start one block further on.
+     */
+    static long restartValue(String optimizer, long maxId, int allocationSize) {
+        return switch (optimizer) {
+            case "pooled-lo", "pooled-lotl", "none" -> maxId + 1;
+            case "pooled" -> maxId + allocationSize;
+            default -> throw new IllegalStateException("Unsupported id optimizer '" + optimizer
+                    + "' in " + PooledSequenceGenerator.OPTIMIZER_SETTING + ", use pooled-lo, pooled or none");
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.stockmanagement.config;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Sequence generator whose allocation size and optimizer come from configuration instead of the mapping,
+ * so ids are handed out in blocks and Hibernate can batch inserts.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "stock.id.allocation_size";
+    public static final String OPTIMIZER_SETTING = "stock.id.optimizer";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+    public static final String DEFAULT_OPTIMIZER = "pooled-lo";
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        parameters.setProperty(OptimizableGenerator.INCREMENT_PARAM,
+                String.valueOf(settings.getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE)));
+        parameters.setProperty(OptimizableGenerator.OPT_PARAM,
+                String.valueOf(settings.getOrDefault(OPTIMIZER_SETTING, DEFAULT_OPTIMIZER)));
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.stockmanagement.config;
+
+import com.example.stockmanagement.model.Provenance;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings an existing schema in line with the current mappings before any other runner touches the data. The id
+ * sequences are already aligned by then, see {@link IdSequenceAligner}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SchemaMigrationRunner implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaMigrationRunner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        backfillLowStockFlags();
+        backfillOpeningBalances();
+        backfillModificationTimes();
+        backfillProvenance();
+    }
+
+    // Rows written before the low_stock column existed start out as false
+    private void backfillLowStockFlags() {
+        int updated = jdbcTemplate.update("UPDATE inventory SET low_stock = (quantity <= min_stock_level) "
+                + "WHERE low_stock <> (quantity <= min_stock_level)");
+        if (updated > 0) {
+            System.out.println("Recomputed low-stock flag for " + updated + " inventory records");
+        }
+    }
+
+    // Inventory that predates the ledger gets an opening movement for its current quantity
+    private void backfillOpeningBalances() {
+        int inserted = jdbcTemplate.update("INSERT INTO stock_movements (id, product_id, delta, reason, created_at) "
+                + "SELECT NEXT VALUE FOR stock_movement_seq, i.product_id, i.quantity, 'OPENING', "
+                + "COALESCE(i.last_updated, CURRENT_TIMESTAMP) FROM inventory i "
+                + "WHERE i.quantity <> 0 AND NOT EXISTS (SELECT 1 FROM stock_movements m WHERE m.product_id = i.product_id)");
+        if (inserted > 0) {
+            System.out.println("Recorded opening ledger balances for " + inserted + " inventory records");
+        }
+    }
+
+    // Rows from before change tracking count as modified now, so clients already syncing pick them up once
+    private void backfillModificationTimes() {
+        int updated = jdbcTemplate.update("UPDATE categories SET last_modified = CURRENT_TIMESTAMP WHERE last_modified IS NULL")
+                + jdbcTemplate.update("UPDATE products SET last_modified = CURRENT_TIMESTAMP WHERE last_modified IS NULL")
+                + jdbcTemplate.update("UPDATE inventory SET last_updated = CURRENT_TIMESTAMP WHERE last_updated IS NULL");
+        if (updated > 0) {
+            System.out.println("Backfilled modification times for " + updated + " records");
+        }
+    }
+
+    // The sample data used to be recognised by its SKUs and names; tag it so it can be cleaned up by provenance
+    private void backfillProvenance() {
+        int updated = jdbcTemplate.update("UPDATE products SET provenance = ? WHERE provenance IS NULL "
+                + "AND sku IN ('ELEC-001', 'ELEC-002', 'CLTH-001', 'CLTH-002', 'FURN-001', 'FURN-002')", Provenance.SEED)
+                + jdbcTemplate.update("UPDATE categories SET provenance = ? WHERE provenance IS NULL "
+                + "AND name IN ('Electronics', 'Clothing', 'Furniture')", Provenance.SEED);
+        if (updated > 0) {
+            System.out.println("Tagged " + updated + " sample data records with their provenance");
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.stockmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces statement-by-statement SQL logging with a log of slow statements only, cheap enough to leave on in
+ * production. Statements over the threshold are counted and a sample of them is logged; statements over the
+ * always-log threshold are logged every time, as warnings on this class's logger.
+ */
+@Component
+public class SlowQueryLog implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final int MAX_LOGGED_SQL_LENGTH = 2000;
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final long alwaysLogThresholdNanos;
+    private final double sampleRate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Counter slowStatements;
+
+    public SlowQueryLog(@Value("${stock.sql.slow-query-log.enabled:true}") boolean enabled,
+                        @Value("${stock.sql.slow-query-threshold:100ms}") Duration threshold,
+                        @Value("${stock.sql.slow-query-always-log-threshold:1s}") Duration alwaysLogThreshold,
+                        @Value("${stock.sql.slow-query-sample-rate:0.1}") double sampleRate,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("stock.sql.slow-query-sample-rate must be between 0 and 1");
+        }
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.alwaysLogThresholdNanos = alwaysLogThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)) {
+            return new TimedDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    void record(String sql, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        countSlowStatement();
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        if (elapsedNanos >= alwaysLogThresholdNanos || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            String statement = sql == null ? "<batch>" : sql.replaceAll("\\s+", " ");
+            if (statement.length() > MAX_LOGGED_SQL_LENGTH) {
+                statement = statement.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+            }
+            log.warn("Slow query ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), statement);
+        }
+    }
+
+    // Looked up on first use: the registry is not ready yet when the DataSource is wrapped
+    private void countSlowStatement() {
+        Counter counter = slowStatements;
+        if (counter == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry == null) {
+                return;
+            }
+            counter = Counter.builder("stock.sql.slow.statements")
+                    .description("Statements that ran longer than the slow query threshold, logged or not")
+                    .register(registry);
+            slowStatements = counter;
+        }
+        counter.increment();
+    }
+
+    private class TimedDataSource extends DelegatingDataSource {
+
+        TimedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return timed(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return timed(super.getConnection(username, password));
+        }
+
+        private Connection timed(Connection connection) {
+            return (Connection) proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof PreparedStatement statement) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                    Class<?> type = result instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+                    return proxy(type, statement, statementHandler(sql));
+                }
+                if (result instanceof Statement statement) {
+                    return proxy(Statement.class, statement, statementHandler(null));
+                }
+                return result;
+            });
+        }
+
+        private TargetHandler statementHandler(String preparedSql) {
+            return (target, method, args) -> {
+                if (!method.getName().startsWith("execute")) {
+                    return invoke(target, method, args);
+                }
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                long start = System.nanoTime();
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    record(sql, System.nanoTime() - start);
+                }
+            };
+        }
+    }
+
+    private interface TargetHandler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static Object proxy(Class<?> type, Object target, TargetHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            // unwrap/isWrapperFor must see the real object so pools and drivers can be reached through the proxy
+            switch (method.getName()) {
+                case "unwrap", "isWrapperFor" -> {
+                    return invoke(target, method, args);
+                }
+                // Hibernate keeps statements in hash maps, so identity must be the proxy's own
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    return handler.handle(target, method, args);
+                }
+            }
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -1,18 +1,45 @@
 package com.example.stockmanagement.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
+
+import java.time.Duration;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final Duration catalogMaxAge;
+    private final boolean catalogCachePrivate;
+
+    public WebConfig(@Value("${stock.http.catalog-max-age:PT0S}") Duration catalogMaxAge,
+                     @Value("${stock.http.catalog-cache-private:true}") boolean catalogCachePrivate) {
+        this.catalogMaxAge = catalogMaxAge;
+        this.catalogCachePrivate = catalogCachePrivate;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOrigins("http://localhost:5173")
                 .allowedMethods("GET", "POST", "PUT", "DELETE")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag")
                 .allowCredentials(true);
     }
+
+    // The catalog lists carry ETags, so clients may keep them for max-age and revalidate cheaply afterwards
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        CacheControl cacheControl = CacheControl.maxAge(catalogMaxAge).mustRevalidate();
+        cacheControl = catalogCachePrivate ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+
+        WebContentInterceptor interceptor = new WebContentInterceptor();
+        interceptor.addCacheMapping(cacheControl, "/api/products", "/api/categories", "/api/inventory");
+        registry.addInterceptor(interceptor);
+    }
 }
@@ -0,0 +1,47 @@
+package com.example.stockmanagement.controller;
+
+import com.example.stockmanagement.dto.CacheStatistics;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "http://localhost:5173")
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    public CacheController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                statistics.add(new CacheStatistics(
+                        name,
+                        nativeCache.estimatedSize(),
+                        stats.hitCount(),
+                        stats.missCount(),
+                        stats.hitRate(),
+                        stats.loadCount(),
+                        stats.evictionCount(),
+                        stats.averageLoadPenalty() / 1_000_000.0));
+            }
+        }
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.stockmanagement.controller;
 
+import com.example.stockmanagement.dto.CategorySummary;
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.KeysetCursor;
 import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.service.CatalogVersions;
+import com.example.stockmanagement.service.CatalogVersions.Table;
 import com.example.stockmanagement.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -16,15 +20,31 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersions catalogVersions;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogVersions catalogVersions) {
         this.categoryService = categoryService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return new ResponseEntity<>(categories, HttpStatus.OK);
+    public ResponseEntity<?> getAllCategories(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            WebRequest webRequest) {
+
+        if (webRequest.checkNotModified(catalogVersions.etag(Table.CATEGORIES))) {
+            return null;
+        }
+
+        // Requests without paging parameters keep the old unpaged array until those clients have moved on
+        if (UnpagedList.requested(limit, after, sort)) {
+            return UnpagedList.deprecated(categoryService.getAllCategories(), "/api/categories?limit=" + KeysetCursor.DEFAULT_LIMIT);
+        }
+
+        CursorPage<CategorySummary> page = categoryService.getCategoryPage(limit, after, sort);
+        return new ResponseEntity<>(page, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
@@ -33,6 +53,12 @@ public class CategoryController {
         return new ResponseEntity<>(category, HttpStatus.OK);
     }
 
+    @GetMapping("/name/{name}")
+    public ResponseEntity<Category> getCategoryByName(@PathVariable String name) {
+        Category category = categoryService.getCategoryByName(name);
+        return new ResponseEntity<>(category, HttpStatus.OK);
+    }
+
     @PostMapping
     public ResponseEntity<Category> createCategory(@Valid @RequestBody Category category) {
         Category newCategory = categoryService.createCategory(category);
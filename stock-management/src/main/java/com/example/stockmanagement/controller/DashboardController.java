@@ -0,0 +1,25 @@
+package com.example.stockmanagement.controller;
+
+import com.example.stockmanagement.dto.DashboardSummary;
+import com.example.stockmanagement.service.DashboardService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "http://localhost:5173")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<DashboardSummary> getSummary() {
+        DashboardSummary summary = dashboardService.getSummary();
+        return new ResponseEntity<>(summary, HttpStatus.OK);
+    }
+}
@@ -1,9 +1,25 @@
 package com.example.stockmanagement.controller;
 
+import com.example.stockmanagement.dto.CleanupJobStatus;
+import com.example.stockmanagement.dto.ImportFormat;
+import com.example.stockmanagement.dto.ImportReport;
+import com.example.stockmanagement.model.Provenance;
+import com.example.stockmanagement.service.CatalogExportService;
+import com.example.stockmanagement.service.CatalogImportService;
 import com.example.stockmanagement.service.DataCleanupService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/data")
@@ -11,28 +27,80 @@ import org.springframework.web.bind.annotation.*;
 public class DataController {
 
     private final DataCleanupService dataCleanupService;
+    private final CatalogExportService catalogExportService;
+    private final CatalogImportService catalogImportService;
 
-    public DataController(DataCleanupService dataCleanupService) {
+    public DataController(DataCleanupService dataCleanupService, CatalogExportService catalogExportService,
+                          CatalogImportService catalogImportService) {
         this.dataCleanupService = dataCleanupService;
+        this.catalogExportService = catalogExportService;
+        this.catalogImportService = catalogImportService;
     }
 
-    @DeleteMapping("/cleanup/all")
-    public ResponseEntity<String> cleanupAllData() {
-        try {
-            dataCleanupService.cleanupAllData();
-            return new ResponseEntity<>("All data cleaned up successfully", HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>("Failed to cleanup data: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    @PostMapping(value = "/import/catalog", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importCatalog(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(defaultValue = Provenance.IMPORT) String provenance,
+            InputStream body) throws IOException {
+
+        ImportFormat format = contentType.startsWith("text/csv") ? ImportFormat.CSV : ImportFormat.NDJSON;
+        ImportReport report = catalogImportService.importCatalog(body, format, provenance);
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    @GetMapping("/export/catalog")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                catalogExportService.exportCatalog(gzipOut);
+                gzipOut.finish();
+            } else {
+                catalogExportService.exportCatalog(out);
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(gzip ? "catalog.ndjson.gz" : "catalog.ndjson").build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    // Cleanups run in the background; the response points at the job to poll for progress
+    @DeleteMapping("/cleanup/all")
+    public ResponseEntity<CleanupJobStatus> cleanupAllData() {
+        return accepted(dataCleanupService.cleanupAllData());
     }
 
     @DeleteMapping("/cleanup/seeded")
-    public ResponseEntity<String> cleanupSeededData() {
-        try {
-            dataCleanupService.cleanupSeededData();
-            return new ResponseEntity<>("Seeded data cleaned up successfully", HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>("Failed to cleanup seeded data: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public ResponseEntity<CleanupJobStatus> cleanupSeededData() {
+        return accepted(dataCleanupService.cleanupSeededData());
+    }
+
+    @DeleteMapping("/cleanup")
+    public ResponseEntity<CleanupJobStatus> cleanupByProvenance(@RequestParam(required = false) String provenance) {
+        return accepted(dataCleanupService.cleanupByProvenance(provenance));
+    }
+
+    @GetMapping("/cleanup/jobs")
+    public ResponseEntity<List<CleanupJobStatus>> getCleanupJobs() {
+        List<CleanupJobStatus> jobs = dataCleanupService.getJobs();
+        return new ResponseEntity<>(jobs, HttpStatus.OK);
+    }
+
+    @GetMapping("/cleanup/jobs/{id}")
+    public ResponseEntity<CleanupJobStatus> getCleanupJob(@PathVariable long id) {
+        CleanupJobStatus job = dataCleanupService.getJob(id);
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    private static ResponseEntity<CleanupJobStatus> accepted(CleanupJobStatus job) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(URI.create("/api/data/cleanup/jobs/" + job.id()));
+        return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
     }
 }
@@ -1,12 +1,29 @@
 package com.example.stockmanagement.controller;
 
+import com.example.stockmanagement.dto.BatchMode;
+import com.example.stockmanagement.dto.BatchMovementResult;
+import com.example.stockmanagement.dto.ContentionStatistics;
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.KeysetCursor;
+import com.example.stockmanagement.dto.EngineReconciliation;
+import com.example.stockmanagement.dto.InventoryRow;
+import com.example.stockmanagement.dto.StockMovementRequest;
+import com.example.stockmanagement.exception.PreconditionFailedException;
 import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.service.CatalogVersions;
+import com.example.stockmanagement.service.CatalogVersions.Table;
+import com.example.stockmanagement.service.InMemoryStockEngine;
+import com.example.stockmanagement.service.InventoryEventBroadcaster;
 import com.example.stockmanagement.service.InventoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -17,22 +34,62 @@ import java.util.Map;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventoryEventBroadcaster eventBroadcaster;
+    private final InMemoryStockEngine inMemoryStockEngine;
+    private final CatalogVersions catalogVersions;
 
     @Autowired
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, InventoryEventBroadcaster eventBroadcaster,
+                               InMemoryStockEngine inMemoryStockEngine, CatalogVersions catalogVersions) {
         this.inventoryService = inventoryService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.inMemoryStockEngine = inMemoryStockEngine;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    public ResponseEntity<List<Inventory>> getAllInventory() {
-        List<Inventory> inventory = inventoryService.getAllInventory();
-        return new ResponseEntity<>(inventory, HttpStatus.OK);
+    public ResponseEntity<?> getAllInventory(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            WebRequest webRequest) {
+
+        // Inventory rows embed their product and its category
+        if (webRequest.checkNotModified(catalogVersions.etag(Table.INVENTORY, Table.PRODUCTS, Table.CATEGORIES))) {
+            return null;
+        }
+
+        // Requests without paging parameters keep the old unpaged array until those clients have moved on
+        if (UnpagedList.requested(limit, after, sort)) {
+            return UnpagedList.deprecated(inventoryService.getAllInventory(), "/api/inventory?limit=" + KeysetCursor.DEFAULT_LIMIT);
+        }
+
+        CursorPage<InventoryRow> page = inventoryService.getInventoryPage(limit, after, sort);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInventoryEvents(
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return eventBroadcaster.subscribe(lastEventId);
+    }
+
+    @GetMapping("/engine/reconcile")
+    public ResponseEntity<List<EngineReconciliation>> reconcileEngine() {
+        List<EngineReconciliation> results = inMemoryStockEngine.reconcile();
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @GetMapping("/contention")
+    public ResponseEntity<List<ContentionStatistics>> getContentionStatistics() {
+        List<ContentionStatistics> statistics = inventoryService.getContentionStatistics();
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Inventory> getInventoryById(@PathVariable Long id) {
         Inventory inventory = inventoryService.getInventoryById(id);
-        return new ResponseEntity<>(inventory, HttpStatus.OK);
+        return new ResponseEntity<>(inventory, versionHeaders(inventory), HttpStatus.OK);
     }
 
     @GetMapping("/product/{productId}")
@@ -42,8 +99,8 @@ public class InventoryController {
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Inventory>> getLowStockItems() {
-        List<Inventory> lowStockItems = inventoryService.getLowStockItems();
+    public ResponseEntity<List<InventoryRow>> getLowStockItems() {
+        List<InventoryRow> lowStockItems = inventoryService.getLowStockItems();
         return new ResponseEntity<>(lowStockItems, HttpStatus.OK);
     }
 
@@ -54,9 +111,12 @@ public class InventoryController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Inventory> updateInventory(@PathVariable Long id, @Valid @RequestBody Inventory inventory) {
-        Inventory updatedInventory = inventoryService.updateInventory(id, inventory);
-        return new ResponseEntity<>(updatedInventory, HttpStatus.OK);
+    public ResponseEntity<Inventory> updateInventory(
+            @PathVariable Long id,
+            @Valid @RequestBody Inventory inventory,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Inventory updatedInventory = inventoryService.updateInventory(id, inventory, parseIfMatch(ifMatch));
+        return new ResponseEntity<>(updatedInventory, versionHeaders(updatedInventory), HttpStatus.OK);
     }
 
     @PutMapping("/product/{productId}")
@@ -105,9 +165,43 @@ public class InventoryController {
         }
     }
 
+    @PostMapping("/movements:batch")
+    public ResponseEntity<BatchMovementResult> applyMovements(
+            @RequestBody List<StockMovementRequest> movements,
+            @RequestParam(defaultValue = "ALL_OR_NOTHING") BatchMode mode) {
+
+        BatchMovementResult result = inventoryService.applyMovements(movements, mode);
+        return new ResponseEntity<>(result, result.applied() ? HttpStatus.OK : HttpStatus.CONFLICT);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteInventory(@PathVariable Long id) {
         inventoryService.deleteInventory(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    private static HttpHeaders versionHeaders(Inventory inventory) {
+        HttpHeaders headers = new HttpHeaders();
+        if (inventory.getVersion() != null) {
+            headers.setETag("\"" + inventory.getVersion() + "\"");
+        }
+        return headers;
+    }
+
+    // "*" or no header means an unconditional update; anything else must be an ETag from this API
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not name a version of this inventory: " + ifMatch);
+        }
+    }
 }
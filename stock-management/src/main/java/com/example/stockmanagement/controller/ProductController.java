@@ -1,12 +1,19 @@
 package com.example.stockmanagement.controller;
 
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.KeysetCursor;
+import com.example.stockmanagement.dto.ProductSearchPage;
+import com.example.stockmanagement.dto.ProductSummary;
 import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.service.CatalogVersions;
+import com.example.stockmanagement.service.CatalogVersions.Table;
 import com.example.stockmanagement.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,15 +23,40 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogVersions catalogVersions;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogVersions catalogVersions) {
         this.productService = productService;
+        this.catalogVersions = catalogVersions;
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            WebRequest webRequest) {
+
+        if (webRequest.checkNotModified(catalogVersions.etag(Table.PRODUCTS, Table.CATEGORIES))) {
+            return null;
+        }
+
+        // Requests without paging parameters keep the old unpaged array until those clients have moved on
+        if (UnpagedList.requested(limit, after, sort)) {
+            return UnpagedList.deprecated(productService.getAllProducts(), "/api/products?limit=" + KeysetCursor.DEFAULT_LIMIT);
+        }
+
+        CursorPage<ProductSummary> page = productService.getProductPage(limit, after, sort);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchPage> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        ProductSearchPage page = productService.searchProducts(q, offset, limit);
+        return new ResponseEntity<>(page, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
@@ -33,9 +65,15 @@ public class ProductController {
         return new ResponseEntity<>(product, HttpStatus.OK);
     }
 
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<Product> getProductBySku(@PathVariable String sku) {
+        Product product = productService.getProductBySku(sku);
+        return new ResponseEntity<>(product, HttpStatus.OK);
+    }
+
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<Product> products = productService.getProductsByCategory(categoryId);
+    public ResponseEntity<List<ProductSummary>> getProductsByCategory(@PathVariable Long categoryId) {
+        List<ProductSummary> products = productService.getProductsByCategory(categoryId);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
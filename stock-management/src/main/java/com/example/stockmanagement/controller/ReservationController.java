@@ -0,0 +1,44 @@
+package com.example.stockmanagement.controller;
+
+import com.example.stockmanagement.dto.ReservationRequest;
+import com.example.stockmanagement.model.Reservation;
+import com.example.stockmanagement.service.ReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reservations")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Reservation> getReservation(@PathVariable Long id) {
+        Reservation reservation = reservationService.getReservation(id);
+        return new ResponseEntity<>(reservation, HttpStatus.OK);
+    }
+
+    @PostMapping
+    public ResponseEntity<Reservation> reserve(@RequestBody ReservationRequest request) {
+        Reservation reservation = reservationService.reserve(request);
+        return new ResponseEntity<>(reservation, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<Reservation> confirm(@PathVariable Long id) {
+        Reservation reservation = reservationService.confirm(id);
+        return new ResponseEntity<>(reservation, HttpStatus.OK);
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<Reservation> release(@PathVariable Long id) {
+        Reservation reservation = reservationService.release(id);
+        return new ResponseEntity<>(reservation, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.stockmanagement.controller;
+
+import com.example.stockmanagement.dto.CompactionResult;
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.StockAtTime;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.model.StockMovement;
+import com.example.stockmanagement.service.ProductService;
+import com.example.stockmanagement.service.StockLedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/ledger")
+@CrossOrigin(origins = "http://localhost:5173")
+public class StockLedgerController {
+
+    private final StockLedgerService stockLedgerService;
+    private final ProductService productService;
+
+    public StockLedgerController(StockLedgerService stockLedgerService, ProductService productService) {
+        this.stockLedgerService = stockLedgerService;
+        this.productService = productService;
+    }
+
+    @GetMapping("/product/{productId}/stock")
+    public ResponseEntity<StockAtTime> getStockAt(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        StockAtTime stock = stockLedgerService.getStockAt(productId, at);
+        return new ResponseEntity<>(stock, HttpStatus.OK);
+    }
+
+    @GetMapping("/sku/{sku}/stock")
+    public ResponseEntity<StockAtTime> getStockAtBySku(
+            @PathVariable String sku,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        Product product = productService.getProductBySku(sku);
+        StockAtTime stock = stockLedgerService.getStockAt(product.getId(), at);
+        return new ResponseEntity<>(stock, HttpStatus.OK);
+    }
+
+    @GetMapping("/product/{productId}/movements")
+    public ResponseEntity<CursorPage<StockMovement>> getMovements(
+            @PathVariable Long productId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        CursorPage<StockMovement> movements = stockLedgerService.getMovements(productId, limit, after);
+        return new ResponseEntity<>(movements, HttpStatus.OK);
+    }
+
+    @PostMapping("/compact")
+    public ResponseEntity<CompactionResult> compact() {
+        CompactionResult result = stockLedgerService.compact();
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
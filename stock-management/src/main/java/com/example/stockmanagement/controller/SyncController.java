@@ -0,0 +1,29 @@
+package com.example.stockmanagement.controller;
+
+import com.example.stockmanagement.dto.SyncChanges;
+import com.example.stockmanagement.service.SyncService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "http://localhost:5173")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    @GetMapping
+    public ResponseEntity<SyncChanges> getChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        SyncChanges changes = syncService.getChanges(since);
+        return new ResponseEntity<>(changes, HttpStatus.OK);
+    }
+}
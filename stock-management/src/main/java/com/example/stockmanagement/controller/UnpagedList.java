@@ -0,0 +1,28 @@
+package com.example.stockmanagement.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * The catalog list endpoints used to answer with the whole table as a bare JSON array. Clients that still call them
+ * without any paging parameter keep getting that shape, marked with a {@code Deprecation} header and a
+ * {@code successor-version} link to the paged form that replaces it.
+ */
+final class UnpagedList {
+
+    private UnpagedList() {
+    }
+
+    static boolean requested(Integer limit, String after, String sort) {
+        return limit == null && after == null && sort == null;
+    }
+
+    static <T> ResponseEntity<List<T>> deprecated(List<T> items, String successor) {
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "<" + successor + ">; rel=\"successor-version\"")
+                .body(items);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.stockmanagement.dto;
+
+public enum BatchMode {
+    // Either every line is applied or none of them is
+    ALL_OR_NOTHING,
+    // Valid lines are applied, rejected lines are reported and skipped
+    BEST_EFFORT
+}
@@ -0,0 +1,7 @@
+package com.example.stockmanagement.dto;
+
+import java.util.List;
+
+public record BatchMovementResult(BatchMode mode, boolean applied, int appliedCount, int rejectedCount,
+                                  List<MovementLineResult> results) {
+}
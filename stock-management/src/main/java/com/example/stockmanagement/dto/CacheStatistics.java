@@ -0,0 +1,5 @@
+package com.example.stockmanagement.dto;
+
+public record CacheStatistics(String name, long size, long hitCount, long missCount, double hitRate,
+                              long loadCount, long evictionCount, double averageLoadPenaltyMillis) {
+}
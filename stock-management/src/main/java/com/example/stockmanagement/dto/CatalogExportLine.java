@@ -0,0 +1,9 @@
+package com.example.stockmanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record CatalogExportLine(Long id, String sku, String name, String description, BigDecimal price,
+                                Long categoryId, String categoryName, Integer quantity, Integer minStockLevel,
+                                LocalDateTime lastUpdated) {
+}
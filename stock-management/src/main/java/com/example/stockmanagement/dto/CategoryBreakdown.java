@@ -0,0 +1,7 @@
+package com.example.stockmanagement.dto;
+
+import java.math.BigDecimal;
+
+public record CategoryBreakdown(Long categoryId, String categoryName, long productCount, long totalUnits,
+                                BigDecimal stockValue) {
+}
@@ -0,0 +1,4 @@
+package com.example.stockmanagement.dto;
+
+public record CategorySummary(Long id, String name, String description) {
+}
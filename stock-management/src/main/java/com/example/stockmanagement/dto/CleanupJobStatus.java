@@ -0,0 +1,17 @@
+package com.example.stockmanagement.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A cleanup job as last seen. {@code provenance} is null when the job removes all data; {@code deleted} holds the
+ * rows removed so far per table, and {@code progress} runs from 0 to 1 over all of the job's tables.
+ */
+public record CleanupJobStatus(long id, String provenance, State state, String currentTable, double progress,
+                               Map<String, Long> deleted, LocalDateTime startedAt, LocalDateTime finishedAt,
+                               String error) {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.stockmanagement.dto;
+
+public record CompactionResult(int snapshotsCreated, Long lastMovementId, long durationMillis) {
+}
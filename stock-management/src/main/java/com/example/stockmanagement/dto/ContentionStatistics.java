@@ -0,0 +1,5 @@
+package com.example.stockmanagement.dto;
+
+public record ContentionStatistics(Long productId, String sku, long conflicts, long retries, long exhausted,
+                                   long preconditionFailures) {
+}
@@ -0,0 +1,10 @@
+package com.example.stockmanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DashboardSummary(long productCount, long categoryCount, long totalUnits, BigDecimal stockValue,
+                               long lowStockCount, List<CategoryBreakdown> categories,
+                               List<LowStockItem> lowStockItems, LocalDateTime generatedAt) {
+}
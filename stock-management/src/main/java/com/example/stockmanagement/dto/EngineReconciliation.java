@@ -0,0 +1,9 @@
+package com.example.stockmanagement.dto;
+
+/**
+ * Compares a product's in-memory quantity with the database. {@code unflushedDelta} is what the write-behind
+ * flusher still has to persist, so the two agree when memory equals database plus unflushed.
+ */
+public record EngineReconciliation(Long productId, int memoryQuantity, Integer databaseQuantity, long unflushedDelta,
+                                   boolean consistent) {
+}
@@ -0,0 +1,6 @@
+package com.example.stockmanagement.dto;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,7 @@
+package com.example.stockmanagement.dto;
+
+import java.util.List;
+
+public record ImportReport(ImportFormat format, long rowsRead, long imported, long failed,
+                           List<ImportRowError> errors, boolean errorsTruncated, long durationMillis) {
+}
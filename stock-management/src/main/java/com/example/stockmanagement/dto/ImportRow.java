@@ -0,0 +1,7 @@
+package com.example.stockmanagement.dto;
+
+import java.math.BigDecimal;
+
+public record ImportRow(String sku, String name, String description, BigDecimal price, String category,
+                        Integer quantity, Integer minStockLevel) {
+}
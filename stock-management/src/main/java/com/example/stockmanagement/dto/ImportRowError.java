@@ -0,0 +1,4 @@
+package com.example.stockmanagement.dto;
+
+public record ImportRowError(long line, String sku, String message) {
+}
@@ -0,0 +1,9 @@
+package com.example.stockmanagement.dto;
+
+import java.time.LocalDateTime;
+
+// List view of an inventory record with the product's name, SKU and category inline
+public record InventoryRow(Long id, Long productId, String sku, String productName, Long categoryId,
+                           String categoryName, int quantity, int reserved, int minStockLevel, boolean lowStock,
+                           LocalDateTime lastUpdated, Long version) {
+}
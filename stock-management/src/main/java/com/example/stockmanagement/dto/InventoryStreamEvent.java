@@ -0,0 +1,33 @@
+package com.example.stockmanagement.dto;
+
+import com.example.stockmanagement.event.InventoryChangedEvent;
+
+import java.time.LocalDateTime;
+
+public record InventoryStreamEvent(long id, InventoryChangedEvent.ChangeType changeType, Long inventoryId,
+                                   Long productId, int quantity, int minStockLevel, boolean lowStock,
+                                   boolean previousLowStock, LocalDateTime timestamp) {
+
+    public static InventoryStreamEvent of(long id, InventoryChangedEvent event) {
+        return new InventoryStreamEvent(id, event.changeType(), event.inventoryId(), event.productId(),
+                event.quantity(), event.minStockLevel(), event.lowStock(), event.previousLowStock(),
+                LocalDateTime.now());
+    }
+
+    // SSE event name: crossings get their own names so clients can listen for just those
+    public String eventName() {
+        if (lowStock && !previousLowStock) {
+            return "low-stock";
+        }
+        if (!lowStock && previousLowStock) {
+            return "restocked";
+        }
+        return "inventory-changed";
+    }
+
+    // Folds a newer event for the same product into this pending one, keeping the state before both
+    public InventoryStreamEvent coalesce(InventoryStreamEvent newer) {
+        return new InventoryStreamEvent(newer.id, newer.changeType, newer.inventoryId, newer.productId,
+                newer.quantity, newer.minStockLevel, newer.lowStock, previousLowStock, newer.timestamp);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.stockmanagement.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position for keyset pagination: the sort field, the last id returned and the last sort value.
+ */
+public record KeysetCursor(String sort, long id, String value) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 1000;
+
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    public static KeysetCursor decode(String cursor, String expectedSort) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new IllegalArgumentException("Cursor does not match sort field: " + expectedSort);
+            }
+            return new KeysetCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = sort + ":" + id + ":" + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
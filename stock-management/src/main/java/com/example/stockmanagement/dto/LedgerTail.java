@@ -0,0 +1,5 @@
+package com.example.stockmanagement.dto;
+
+// Movements after a snapshot up to the requested time: how many there are and what they add up to
+public record LedgerTail(long movements, long delta) {
+}
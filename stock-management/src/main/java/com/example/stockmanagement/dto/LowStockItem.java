@@ -0,0 +1,4 @@
+package com.example.stockmanagement.dto;
+
+public record LowStockItem(Long inventoryId, Long productId, String productName, int quantity, int minStockLevel) {
+}
@@ -0,0 +1,11 @@
+package com.example.stockmanagement.dto;
+
+public record MovementLineResult(int index, Long productId, Integer delta, Status status, Integer quantity,
+                                 String message) {
+
+    public enum Status {
+        APPLIED,
+        REJECTED,
+        SKIPPED
+    }
+}
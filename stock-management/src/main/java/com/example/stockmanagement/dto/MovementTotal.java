@@ -0,0 +1,7 @@
+package com.example.stockmanagement.dto;
+
+import java.time.LocalDateTime;
+
+// Movements of one product within a compaction range, summed
+public record MovementTotal(Long productId, long delta, Long lastMovementId, LocalDateTime lastCreatedAt) {
+}
@@ -0,0 +1,9 @@
+package com.example.stockmanagement.dto;
+
+// The two keys a product is cached under
+public interface ProductKey {
+
+    Long getId();
+
+    String getSku();
+}
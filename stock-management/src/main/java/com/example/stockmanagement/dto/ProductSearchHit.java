@@ -0,0 +1,7 @@
+package com.example.stockmanagement.dto;
+
+import java.math.BigDecimal;
+
+// One ranked search result, served straight from the search index without touching the database
+public record ProductSearchHit(Long id, String sku, String name, BigDecimal price, Long categoryId, float score) {
+}
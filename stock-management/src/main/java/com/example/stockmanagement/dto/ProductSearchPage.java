@@ -0,0 +1,6 @@
+package com.example.stockmanagement.dto;
+
+import java.util.List;
+
+public record ProductSearchPage(String query, int total, int offset, List<ProductSearchHit> items) {
+}
@@ -0,0 +1,8 @@
+package com.example.stockmanagement.dto;
+
+import java.math.BigDecimal;
+
+// List view of a product with its category inline; built by a JPQL constructor expression, never a managed entity
+public record ProductSummary(Long id, String sku, String name, String description, BigDecimal price,
+                             Long categoryId, String categoryName, Long version) {
+}
@@ -0,0 +1,5 @@
+package com.example.stockmanagement.dto;
+
+// ttlSeconds is optional; without it the configured default applies
+public record ReservationRequest(Long productId, Integer quantity, Long ttlSeconds) {
+}
@@ -0,0 +1,7 @@
+package com.example.stockmanagement.dto;
+
+import java.time.LocalDateTime;
+
+public record StockAtTime(Long productId, LocalDateTime at, long quantity, LocalDateTime snapshotAsOf,
+                          long movementsAfterSnapshot) {
+}
@@ -0,0 +1,15 @@
+package com.example.stockmanagement.dto;
+
+// Stock columns of an inventory row as left by a single-statement update, read back in the same transaction
+public interface StockLevel {
+
+    Long getId();
+
+    int getQuantity();
+
+    int getReserved();
+
+    int getMinStockLevel();
+
+    Long getVersion();
+}
@@ -0,0 +1,4 @@
+package com.example.stockmanagement.dto;
+
+public record StockMovementRequest(Long productId, Integer delta) {
+}
@@ -0,0 +1,6 @@
+package com.example.stockmanagement.dto;
+
+import java.math.BigDecimal;
+
+public record StockTotals(long totalUnits, BigDecimal stockValue) {
+}
@@ -0,0 +1,19 @@
+package com.example.stockmanagement.dto;
+
+import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.model.SyncTombstone;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rows changed after {@code since}, to be upserted by id, and rows deleted since then. {@code watermark} is the
+ * {@code since} of the next call. When {@code full} is set the lists hold the whole catalog and the client replaces
+ * its copy instead of merging.
+ */
+public record SyncChanges(LocalDateTime since, LocalDateTime watermark, boolean full,
+                          List<Category> categories, List<Product> products, List<Inventory> inventory,
+                          List<SyncTombstone> deleted) {
+}
@@ -0,0 +1,28 @@
+package com.example.stockmanagement.event;
+
+import com.example.stockmanagement.model.Inventory;
+
+/**
+ * Published by the inventory write paths inside their transaction; listeners only see it once the change commits.
+ */
+public record InventoryChangedEvent(ChangeType changeType, Long inventoryId, Long productId, int quantity,
+                                    int minStockLevel, boolean lowStock, boolean previousLowStock) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static InventoryChangedEvent of(ChangeType changeType, Inventory inventory, boolean previousLowStock) {
+        // The stored flag is only refreshed on flush, so derive it from the current values
+        return new InventoryChangedEvent(
+                changeType,
+                inventory.getId(),
+                inventory.getProduct() != null ? inventory.getProduct().getId() : null,
+                inventory.getQuantity(),
+                inventory.getMinStockLevel(),
+                inventory.getQuantity() <= inventory.getMinStockLevel(),
+                previousLowStock);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.stockmanagement.exception;
+
+// A conditional request (If-Match) named a version that is no longer current
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
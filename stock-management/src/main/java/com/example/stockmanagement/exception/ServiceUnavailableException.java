@@ -0,0 +1,13 @@
+package com.example.stockmanagement.exception;
+
+// A write could not be confirmed because a backing resource (e.g. the stock engine log) is failing
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,14 +1,29 @@
 package com.example.stockmanagement.model;
 
+import com.example.stockmanagement.config.PooledSequenceGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "categories")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "categories", indexes = {
+        @Index(name = "idx_categories_name_id", columnList = "name, id"),
+        @Index(name = "idx_categories_last_modified", columnList = "last_modified"),
+        @Index(name = "idx_categories_provenance_id", columnList = "provenance, id")
+})
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "category_seq")
+    @GenericGenerator(name = "category_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "category_seq"))
     private Long id;
 
     @NotBlank(message = "Category name is required")
@@ -17,6 +32,15 @@ public class Category {
 
     private String description;
 
+    @Column(name = "last_modified")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime lastModified;
+
+    // Rows from before provenance was tracked stay null unless they match the sample data
+    @Column(length = Provenance.MAX_LENGTH)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String provenance = Provenance.API;
+
     public Category() {
     }
 
@@ -26,6 +50,12 @@ public class Category {
         this.description = description;
     }
 
+    @PrePersist
+    @PreUpdate
+    public void beforeSave() {
+        lastModified = LocalDateTime.now();
+    }
+
     public Long getId() {
         return id;
     }
@@ -46,6 +76,18 @@ public class Category {
         return description;
     }
 
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    public String getProvenance() {
+        return provenance;
+    }
+
+    public void setProvenance(String provenance) {
+        this.provenance = provenance;
+    }
+
     public void setDescription(String description) {
         this.description = description;
     }
@@ -1,20 +1,32 @@
 package com.example.stockmanagement.model;
 
+import com.example.stockmanagement.config.PooledSequenceGenerator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory")
+@Table(name = "inventory", indexes = {
+        @Index(name = "idx_inventory_quantity_id", columnList = "quantity, id"),
+        @Index(name = "idx_inventory_low_stock", columnList = "low_stock, id"),
+        @Index(name = "idx_inventory_last_updated", columnList = "last_updated")
+})
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "inventory_seq")
+    @GenericGenerator(name = "inventory_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "inventory_seq"))
     private Long id;
 
-    @OneToOne(fetch = FetchType.EAGER, cascade = CascadeType.REFRESH)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.REFRESH)
     @JoinColumn(name = "product_id", unique = true)
     @NotNull(message = "Product is required")
     private Product product;
@@ -27,6 +39,24 @@ public class Inventory {
 
     private LocalDateTime lastUpdated;
 
+    // Optimistic lock; the single-statement updates in InventoryRepository bump it as well
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Part of quantity held by active reservations; only the rest can be removed or reserved
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int reserved;
+
+    // Stored copy of quantity <= minStockLevel, so low-stock lookups can use an index instead of comparing columns
+    @Column(name = "low_stock", columnDefinition = "boolean default false not null")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean lowStock;
+
     public Inventory() {
     }
 
@@ -40,8 +70,9 @@ public class Inventory {
 
     @PrePersist
     @PreUpdate
-    public void updateTimestamp() {
+    public void beforeSave() {
         lastUpdated = LocalDateTime.now();
+        lowStock = quantity <= minStockLevel;
     }
 
     public Long getId() {
@@ -52,6 +83,15 @@ public class Inventory {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    // For views built from an update's result; Hibernate manages the version of loaded entities itself
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Product getProduct() {
         return product;
     }
@@ -68,6 +108,19 @@ public class Inventory {
         this.quantity = quantity;
     }
 
+    public int getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(int reserved) {
+        this.reserved = reserved;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public int getAvailable() {
+        return quantity - reserved;
+    }
+
     public int getMinStockLevel() {
         return minStockLevel;
     }
@@ -83,4 +136,12 @@ public class Inventory {
     public void setLastUpdated(LocalDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public boolean isLowStock() {
+        return lowStock;
+    }
+
+    public void setLowStock(boolean lowStock) {
+        this.lowStock = lowStock;
+    }
 }
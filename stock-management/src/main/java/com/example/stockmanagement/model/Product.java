@@ -1,19 +1,36 @@
 package com.example.stockmanagement.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.example.stockmanagement.config.PooledSequenceGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+// Associations are lazy; the repositories fetch the category per use case. Inventory is reached through
+// InventoryRepository, since the inverse side of a one-to-one cannot be loaded lazily.
 @Entity
-@Table(name = "products")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_sku", columnList = "sku"),
+        @Index(name = "idx_products_last_modified", columnList = "last_modified"),
+        @Index(name = "idx_products_provenance_id", columnList = "provenance, id")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "product_seq")
+    @GenericGenerator(name = "product_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "product_seq"))
     private Long id;
 
     @NotBlank(message = "Product name is required")
@@ -27,13 +44,25 @@ public class Product {
 
     private String sku;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @OneToOne(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonIgnore
-    private Inventory inventory;
+    // Optimistic lock; concurrent updates fail instead of silently overwriting each other
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @Column(name = "last_modified")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime lastModified;
+
+    // Rows from before provenance was tracked stay null unless they match the sample data
+    @Column(length = Provenance.MAX_LENGTH)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String provenance = Provenance.API;
 
     public Product() {
     }
@@ -47,10 +76,32 @@ public class Product {
         this.category = category;
     }
 
+    @PrePersist
+    @PreUpdate
+    public void beforeSave() {
+        lastModified = LocalDateTime.now();
+    }
+
     public Long getId() {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    public String getProvenance() {
+        return provenance;
+    }
+
+    public void setProvenance(String provenance) {
+        this.provenance = provenance;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -94,12 +145,4 @@ public class Product {
     public void setCategory(Category category) {
         this.category = category;
     }
-
-    public Inventory getInventory() {
-        return inventory;
-    }
-
-    public void setInventory(Inventory inventory) {
-        this.inventory = inventory;
-    }
 }
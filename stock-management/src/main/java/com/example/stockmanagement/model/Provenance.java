@@ -0,0 +1,17 @@
+package com.example.stockmanagement.model;
+
+/**
+ * Where a product or category came from. Imports may also pass their own tag, so one feed can be cleaned up
+ * without touching the rest of the catalog.
+ */
+public final class Provenance {
+
+    public static final String SEED = "seed";
+    public static final String IMPORT = "import";
+    public static final String API = "api";
+
+    public static final int MAX_LENGTH = 64;
+
+    private Provenance() {
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.stockmanagement.model;
+
+import com.example.stockmanagement.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_status_expires_at", columnList = "status, expires_at")
+})
+public class Reservation {
+
+    public enum Status {
+        ACTIVE,
+        CONFIRMED,
+        RELEASED,
+        EXPIRED
+    }
+
+    @Id
+    @GeneratedValue(generator = "reservation_seq")
+    @GenericGenerator(name = "reservation_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "reservation_seq"))
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(nullable = false, updatable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+
+    public Reservation() {
+    }
+
+    public Reservation(Long productId, int quantity, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = Status.ACTIVE;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.stockmanagement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Highest write-ahead log sequence of the in-memory stock engine that is reflected in the inventory table.
+ * Written in the same transaction as the quantities it covers.
+ */
+@Entity
+@Table(name = "stock_engine_checkpoint")
+public class StockEngineCheckpoint {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "wal_sequence", nullable = false)
+    private long walSequence;
+
+    public StockEngineCheckpoint() {
+    }
+
+    public StockEngineCheckpoint(Long id, long walSequence) {
+        this.id = id;
+        this.walSequence = walSequence;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getWalSequence() {
+        return walSequence;
+    }
+
+    public void setWalSequence(long walSequence) {
+        this.walSequence = walSequence;
+    }
+}
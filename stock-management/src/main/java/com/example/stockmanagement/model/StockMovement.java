@@ -0,0 +1,82 @@
+package com.example.stockmanagement.model;
+
+import com.example.stockmanagement.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only stock ledger. Rows are only ever inserted; the product is kept as a plain id so
+ * the history survives the product being deleted.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_product_id", columnList = "product_id, id"),
+        @Index(name = "idx_stock_movements_created_at", columnList = "created_at")
+})
+public class StockMovement {
+
+    public enum Reason {
+        // Quantity the inventory record started with
+        OPENING,
+        STOCK_IN,
+        STOCK_OUT,
+        // Quantity set directly, recorded as the difference to the previous value
+        ADJUSTMENT,
+        BATCH,
+        // Remaining quantity written off when the inventory record is deleted
+        CLOSING
+    }
+
+    @Id
+    @GeneratedValue(generator = "stock_movement_seq")
+    @GenericGenerator(name = "stock_movement_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "stock_movement_seq"))
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(nullable = false, updatable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 20)
+    private Reason reason;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public StockMovement() {
+    }
+
+    public StockMovement(Long productId, int delta, Reason reason, LocalDateTime createdAt) {
+        this.productId = productId;
+        this.delta = delta;
+        this.reason = reason;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
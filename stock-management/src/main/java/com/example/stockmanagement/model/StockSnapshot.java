@@ -0,0 +1,69 @@
+package com.example.stockmanagement.model;
+
+import com.example.stockmanagement.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running total of a product's ledger up to and including {@code lastMovementId}. {@code asOf} is the time of the
+ * newest movement it covers, so a point-in-time query only has to add the movements after it.
+ */
+@Entity
+@Table(name = "stock_snapshots", indexes = {
+        @Index(name = "idx_stock_snapshots_product_as_of", columnList = "product_id, as_of"),
+        @Index(name = "idx_stock_snapshots_last_movement", columnList = "last_movement_id")
+})
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(generator = "stock_snapshot_seq")
+    @GenericGenerator(name = "stock_snapshot_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "stock_snapshot_seq"))
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(nullable = false, updatable = false)
+    private long quantity;
+
+    @Column(name = "as_of", nullable = false, updatable = false)
+    private LocalDateTime asOf;
+
+    @Column(name = "last_movement_id", nullable = false, updatable = false)
+    private Long lastMovementId;
+
+    public StockSnapshot() {
+    }
+
+    public StockSnapshot(Long productId, long quantity, LocalDateTime asOf, Long lastMovementId) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.asOf = asOf;
+        this.lastMovementId = lastMovementId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public Long getLastMovementId() {
+        return lastMovementId;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.stockmanagement.model;
+
+import com.example.stockmanagement.config.PooledSequenceGenerator;
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted row for the delta sync. An {@code ALL} tombstone stands for a bulk cleanup and tells clients
+ * to drop their copy and take a full snapshot.
+ */
+@Entity
+@Table(name = "sync_tombstones", indexes = @Index(name = "idx_sync_tombstones_deleted_at", columnList = "deleted_at"))
+public class SyncTombstone {
+
+    public enum EntityType {
+        CATEGORY, PRODUCT, INVENTORY, ALL
+    }
+
+    @Id
+    @GeneratedValue(generator = "sync_tombstone_seq")
+    @GenericGenerator(name = "sync_tombstone_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "sync_tombstone_seq"))
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, updatable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", updatable = false)
+    private Long entityId;
+
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+
+    public SyncTombstone() {
+    }
+
+    public SyncTombstone(EntityType entityType, Long entityId, LocalDateTime deletedAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
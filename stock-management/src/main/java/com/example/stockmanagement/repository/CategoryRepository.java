@@ -1,12 +1,43 @@
 package com.example.stockmanagement.repository;
 
+import com.example.stockmanagement.dto.CategoryBreakdown;
+import com.example.stockmanagement.dto.CategorySummary;
 import com.example.stockmanagement.model.Category;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name); // Null point exception almıyoruz
+
+    @Query("SELECT new com.example.stockmanagement.dto.CategoryBreakdown(c.id, c.name, COUNT(p), " +
+            "COALESCE(SUM(i.quantity), 0L), COALESCE(SUM(p.price * i.quantity), 0.0BD)) " +
+            "FROM Category c LEFT JOIN Product p ON p.category = c LEFT JOIN Inventory i ON i.product = p " +
+            "GROUP BY c.id, c.name ORDER BY c.name")
+    List<CategoryBreakdown> getCategoryBreakdown();
+
+    @Query("SELECT new com.example.stockmanagement.dto.CategorySummary(c.id, c.name, c.description) " +
+            "FROM Category c ORDER BY c.id")
+    List<CategorySummary> findAllSummaries();
+
+    @Query("SELECT new com.example.stockmanagement.dto.CategorySummary(c.id, c.name, c.description) " +
+            "FROM Category c WHERE c.id > :afterId ORDER BY c.id")
+    Slice<CategorySummary> findPageOrderById(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.stockmanagement.dto.CategorySummary(c.id, c.name, c.description) " +
+            "FROM Category c " +
+            "WHERE c.name >= :afterName AND (c.name > :afterName OR c.id > :afterId) ORDER BY c.name, c.id")
+    Slice<CategorySummary> findPageOrderByName(@Param("afterName") String afterName, @Param("afterId") long afterId,
+                                               Pageable pageable);
+
+    @Query("SELECT c FROM Category c WHERE c.lastModified > :since ORDER BY c.id")
+    List<Category> findModifiedSince(@Param("since") LocalDateTime since);
 }
@@ -1,18 +1,152 @@
 package com.example.stockmanagement.repository;
 
+import com.example.stockmanagement.dto.InventoryRow;
+import com.example.stockmanagement.dto.LowStockItem;
+import com.example.stockmanagement.dto.StockLevel;
+import com.example.stockmanagement.dto.StockTotals;
 import com.example.stockmanagement.model.Inventory;
 import com.example.stockmanagement.model.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    // Inventory is returned with its product and category, so the reads load them in the same query
+    @Override
+    @EntityGraph(attributePaths = {"product", "product.category"})
+    List<Inventory> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"product", "product.category"})
+    Optional<Inventory> findById(Long id);
+
+    @EntityGraph(attributePaths = {"product", "product.category"})
     Optional<Inventory> findByProduct(Product product);
-    
-    @Query("SELECT i FROM Inventory i WHERE i.quantity <= i.minStockLevel")
-    List<Inventory> findLowStockItems();
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product p LEFT JOIN FETCH p.category WHERE p.id = :productId")
+    Optional<Inventory> findByProductId(@Param("productId") Long productId);
+
+    boolean existsByProductId(Long productId);
+
+    @Query("SELECT i.product.id FROM Inventory i WHERE i.product.id IN :productIds")
+    List<Long> findExistingProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Rows are locked in id order so concurrent batches touching the same products cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product p LEFT JOIN FETCH p.category " +
+            "WHERE p.id IN :productIds ORDER BY i.id")
+    List<Inventory> findAllByProductIdInForUpdate(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.product p LEFT JOIN FETCH p.category " +
+            "WHERE i.lastUpdated > :since ORDER BY i.id")
+    List<Inventory> findModifiedSince(@Param("since") LocalDateTime since);
+
+    // List reads are projected straight into DTOs with the product columns inline
+    @Query("SELECT new com.example.stockmanagement.dto.InventoryRow(i.id, p.id, p.sku, p.name, c.id, c.name, " +
+            "i.quantity, i.reserved, i.minStockLevel, i.lowStock, i.lastUpdated, i.version) " +
+            "FROM Inventory i JOIN i.product p LEFT JOIN p.category c " +
+            "ORDER BY i.id")
+    List<InventoryRow> findAllRows();
+
+    @Query("SELECT new com.example.stockmanagement.dto.InventoryRow(i.id, p.id, p.sku, p.name, c.id, c.name, " +
+            "i.quantity, i.reserved, i.minStockLevel, i.lowStock, i.lastUpdated, i.version) " +
+            "FROM Inventory i JOIN i.product p LEFT JOIN p.category c " +
+            "WHERE i.id > :afterId ORDER BY i.id")
+    Slice<InventoryRow> findPageOrderById(@Param("afterId") long afterId, Pageable pageable);
+
+    // The leading range on quantity is what lets idx_inventory_quantity_id seek to the cursor; the OR on its own
+    // reads the index from the start. Hibernate 6.3 cannot compare a (quantity, id) row value against parameters.
+    @Query("SELECT new com.example.stockmanagement.dto.InventoryRow(i.id, p.id, p.sku, p.name, c.id, c.name, " +
+            "i.quantity, i.reserved, i.minStockLevel, i.lowStock, i.lastUpdated, i.version) " +
+            "FROM Inventory i JOIN i.product p LEFT JOIN p.category c " +
+            "WHERE i.quantity >= :afterQuantity AND (i.quantity > :afterQuantity OR i.id > :afterId) " +
+            "ORDER BY i.quantity, i.id")
+    Slice<InventoryRow> findPageOrderByQuantity(@Param("afterQuantity") int afterQuantity,
+                                                @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.stockmanagement.dto.InventoryRow(i.id, p.id, p.sku, p.name, c.id, c.name, " +
+            "i.quantity, i.reserved, i.minStockLevel, i.lowStock, i.lastUpdated, i.version) " +
+            "FROM Inventory i JOIN i.product p LEFT JOIN p.category c " +
+            "WHERE i.lowStock = true ORDER BY i.id")
+    List<InventoryRow> findLowStockItems();
+
+    @Query("SELECT COUNT(i) FROM Inventory i WHERE i.lowStock = true")
+    long countLowStockItems();
+
+    @Query("SELECT new com.example.stockmanagement.dto.StockTotals(" +
+            "COALESCE(SUM(i.quantity), 0L), COALESCE(SUM(p.price * i.quantity), 0.0BD)) " +
+            "FROM Inventory i JOIN i.product p")
+    StockTotals getStockTotals();
+
+    @Query("SELECT new com.example.stockmanagement.dto.LowStockItem(i.id, p.id, p.name, i.quantity, i.minStockLevel) " +
+            "FROM Inventory i JOIN i.product p WHERE i.lowStock = true ORDER BY i.quantity, i.id")
+    List<LowStockItem> findLowStockPreview(Pageable pageable);
+
+    // Single-statement stock movements: the database applies the delta, so concurrent callers cannot lose updates.
+    // The low-stock flag is recomputed in the same statement from the pre-update values.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity + :quantity, " +
+            "i.lastUpdated = :now, i.version = i.version + 1, " +
+            "i.lowStock = CASE WHEN i.quantity + :quantity <= i.minStockLevel THEN true ELSE false END " +
+            "WHERE i.product.id = :productId")
+    int incrementQuantity(@Param("productId") Long productId,
+                          @Param("quantity") int quantity,
+                          @Param("now") LocalDateTime now);
+
+    // Only matches when enough unreserved stock is left, so the check and the decrement happen atomically
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :quantity, " +
+            "i.lastUpdated = :now, i.version = i.version + 1, " +
+            "i.lowStock = CASE WHEN i.quantity - :quantity <= i.minStockLevel THEN true ELSE false END " +
+            "WHERE i.product.id = :productId AND i.quantity - i.reserved >= :quantity")
+    int decrementQuantityIfAvailable(@Param("productId") Long productId,
+                                     @Param("quantity") int quantity,
+                                     @Param("now") LocalDateTime now);
+
+    // Read after a movement in the same transaction: the update still holds the row lock, so this sees exactly the
+    // movement's own result. Stock columns only, through the unique product_id, without loading the entity
+    @Query("SELECT i.id AS id, i.quantity AS quantity, i.reserved AS reserved, i.minStockLevel AS minStockLevel, " +
+            "i.version AS version FROM Inventory i WHERE i.product.id = :productId")
+    Optional<StockLevel> findStockLevelByProductId(@Param("productId") Long productId);
+
+    // Holds stock for a reservation; like the decrement it only matches when enough unreserved stock is left
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.reserved = i.reserved + :quantity, " +
+            "i.lastUpdated = :now, i.version = i.version + 1 " +
+            "WHERE i.product.id = :productId AND i.quantity - i.reserved >= :quantity")
+    int reserveIfAvailable(@Param("productId") Long productId,
+                           @Param("quantity") int quantity,
+                           @Param("now") LocalDateTime now);
+
+    // Turns held stock into a removal: quantity and reserved drop together
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.quantity = i.quantity - :quantity, i.reserved = i.reserved - :quantity, " +
+            "i.lastUpdated = :now, i.version = i.version + 1, " +
+            "i.lowStock = CASE WHEN i.quantity - :quantity <= i.minStockLevel THEN true ELSE false END " +
+            "WHERE i.product.id = :productId AND i.reserved >= :quantity")
+    int consumeReserved(@Param("productId") Long productId,
+                        @Param("quantity") int quantity,
+                        @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.reserved = i.reserved - :quantity, " +
+            "i.lastUpdated = :now, i.version = i.version + 1 " +
+            "WHERE i.product.id = :productId AND i.reserved >= :quantity")
+    int releaseReserved(@Param("productId") Long productId,
+                        @Param("quantity") int quantity,
+                        @Param("now") LocalDateTime now);
 }
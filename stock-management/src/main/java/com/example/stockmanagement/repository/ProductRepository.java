@@ -1,16 +1,83 @@
 package com.example.stockmanagement.repository;
 
+import com.example.stockmanagement.dto.ProductKey;
+import com.example.stockmanagement.dto.ProductSummary;
 import com.example.stockmanagement.model.Category;
 import com.example.stockmanagement.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+
+    @EntityGraph(attributePaths = "category")
     List<Product> findByCategory(Category category);
 
+    @EntityGraph(attributePaths = "category")
     Optional<Product> findBySku(String sku); // Stock keeping unit
+
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    // Forward-only, read-only walk over the whole catalog for exports as (product, inventory or null) pairs; both are
+    // joined so no row needs a second query
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p, i FROM Product p LEFT JOIN FETCH p.category LEFT JOIN Inventory i ON i.product = p ORDER BY p.id")
+    Stream<Object[]> streamCatalog();
+
+    // List reads are projected straight into DTOs: no entity hydration, dirty-checking snapshots or proxies
+    @Query("SELECT new com.example.stockmanagement.dto.ProductSummary(" +
+            "p.id, p.sku, p.name, p.description, p.price, c.id, c.name, p.version) " +
+            "FROM Product p LEFT JOIN p.category c ORDER BY p.id")
+    List<ProductSummary> findAllSummaries();
+
+    @Query("SELECT new com.example.stockmanagement.dto.ProductSummary(" +
+            "p.id, p.sku, p.name, p.description, p.price, c.id, c.name, p.version) " +
+            "FROM Product p JOIN p.category c WHERE c.id = :categoryId ORDER BY p.id")
+    List<ProductSummary> findSummariesByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT p.id AS id, p.sku AS sku FROM Product p WHERE p.category.id = :categoryId")
+    List<ProductKey> findKeysByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Keyset pages: each page seeks past the previous cursor, so deep pages cost the same as the first
+    @Query("SELECT new com.example.stockmanagement.dto.ProductSummary(" +
+            "p.id, p.sku, p.name, p.description, p.price, c.id, c.name, p.version) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id > :afterId ORDER BY p.id")
+    Slice<ProductSummary> findPageOrderById(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.stockmanagement.dto.ProductSummary(" +
+            "p.id, p.sku, p.name, p.description, p.price, c.id, c.name, p.version) " +
+            "FROM Product p LEFT JOIN p.category c " +
+            "WHERE p.name >= :afterName AND (p.name > :afterName OR p.id > :afterId) ORDER BY p.name, p.id")
+    Slice<ProductSummary> findPageOrderByName(@Param("afterName") String afterName, @Param("afterId") long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.lastModified > :since ORDER BY p.id")
+    List<Product> findModifiedSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,28 @@
+package com.example.stockmanagement.repository;
+
+import com.example.stockmanagement.model.Reservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    // Used once at startup to re-arm the expiry timers, walks idx_reservations_status_expires_at
+    List<Reservation> findByStatus(Reservation.Status status);
+
+    // Status transitions are guarded on the current status, so confirm, release and expiry cannot both win
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = 'CONFIRMED' " +
+            "WHERE r.id = :id AND r.status = 'ACTIVE' AND r.expiresAt > :now")
+    int confirmIfActive(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :status WHERE r.id = :id AND r.status = 'ACTIVE'")
+    int closeIfActive(@Param("id") Long id, @Param("status") Reservation.Status status);
+}
@@ -0,0 +1,9 @@
+package com.example.stockmanagement.repository;
+
+import com.example.stockmanagement.model.StockEngineCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockEngineCheckpointRepository extends JpaRepository<StockEngineCheckpoint, Long> {
+}
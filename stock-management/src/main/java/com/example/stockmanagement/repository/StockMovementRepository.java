@@ -0,0 +1,35 @@
+package com.example.stockmanagement.repository;
+
+import com.example.stockmanagement.dto.LedgerTail;
+import com.example.stockmanagement.dto.MovementTotal;
+import com.example.stockmanagement.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    @Query("SELECT m FROM StockMovement m WHERE m.productId = :productId AND m.id > :afterId ORDER BY m.id")
+    Slice<StockMovement> findPageByProductId(@Param("productId") Long productId, @Param("afterId") long afterId,
+                                             Pageable pageable);
+
+    // The tail a point-in-time query adds on top of a snapshot; walks idx_stock_movements_product_id
+    @Query("SELECT new com.example.stockmanagement.dto.LedgerTail(COUNT(m), COALESCE(SUM(m.delta), 0L)) "
+            + "FROM StockMovement m WHERE m.productId = :productId AND m.id > :afterId AND m.createdAt <= :at")
+    LedgerTail sumTail(@Param("productId") Long productId, @Param("afterId") long afterId,
+                           @Param("at") LocalDateTime at);
+
+    @Query("SELECT MAX(m.id) FROM StockMovement m WHERE m.id > :afterId AND m.createdAt < :cutoff")
+    Long findLastIdBefore(@Param("afterId") long afterId, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT new com.example.stockmanagement.dto.MovementTotal(m.productId, SUM(m.delta), MAX(m.id), MAX(m.createdAt)) "
+            + "FROM StockMovement m WHERE m.id > :fromId AND m.id <= :toId GROUP BY m.productId")
+    List<MovementTotal> sumByProduct(@Param("fromId") long fromId, @Param("toId") long toId);
+}
@@ -0,0 +1,29 @@
+package com.example.stockmanagement.repository;
+
+import com.example.stockmanagement.model.StockSnapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    @Query("SELECT s FROM StockSnapshot s WHERE s.productId = :productId AND s.asOf <= :at "
+            + "ORDER BY s.asOf DESC, s.lastMovementId DESC")
+    List<StockSnapshot> findLatestAt(@Param("productId") Long productId, @Param("at") LocalDateTime at,
+                                     Pageable pageable);
+
+    // Every compaction run covers all movements up to its watermark, so the highest one is where the next run starts
+    @Query("SELECT COALESCE(MAX(s.lastMovementId), 0) FROM StockSnapshot s")
+    long findWatermark();
+
+    @Query("SELECT s FROM StockSnapshot s WHERE s.productId IN :productIds AND s.lastMovementId = "
+            + "(SELECT MAX(s2.lastMovementId) FROM StockSnapshot s2 WHERE s2.productId = s.productId)")
+    List<StockSnapshot> findLatestForProducts(@Param("productIds") Collection<Long> productIds);
+}
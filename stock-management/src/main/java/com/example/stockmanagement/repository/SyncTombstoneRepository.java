@@ -0,0 +1,23 @@
+package com.example.stockmanagement.repository;
+
+import com.example.stockmanagement.model.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    List<SyncTombstone> findByDeletedAtAfterOrderByDeletedAt(LocalDateTime since);
+
+    boolean existsByEntityTypeAndDeletedAtAfter(SyncTombstone.EntityType entityType, LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,83 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.CatalogExportLine;
+import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class CatalogExportService {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter lineWriter;
+    private final int clearInterval;
+
+    public CatalogExportService(ProductRepository productRepository, EntityManager entityManager,
+                                ObjectMapper objectMapper,
+                                @Value("${stock.export.clear-interval:1000}") int clearInterval) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.lineWriter = objectMapper.writerFor(CatalogExportLine.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        this.clearInterval = clearInterval;
+    }
+
+    /**
+     * Writes one NDJSON line per product, with its stock level, and returns the number of lines written.
+     * Rows are read through a forward-only stream and the persistence context is cleared every
+     * {@code clearInterval} rows, so memory use does not grow with the size of the catalog.
+     */
+    @Transactional(readOnly = true)
+    public long exportCatalog(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Object[]> rows = productRepository.streamCatalog();
+             SequenceWriter lines = lineWriter.writeValues(StreamUtils.nonClosing(out))) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                lines.write(toLine((Product) row[0], (Inventory) row[1]));
+                if (++count % clearInterval == 0) {
+                    entityManager.clear();
+                    lines.flush();
+                }
+            }
+        }
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+
+    private CatalogExportLine toLine(Product product, Inventory inventory) {
+        Category category = product.getCategory();
+        return new CatalogExportLine(
+                product.getId(),
+                product.getSku(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                category != null ? category.getId() : null,
+                category != null ? category.getName() : null,
+                inventory != null ? inventory.getQuantity() : null,
+                inventory != null ? inventory.getMinStockLevel() : null,
+                inventory != null ? inventory.getLastUpdated() : null);
+    }
+}
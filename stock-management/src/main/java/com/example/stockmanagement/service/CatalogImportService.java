@@ -0,0 +1,305 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.ImportFormat;
+import com.example.stockmanagement.dto.ImportReport;
+import com.example.stockmanagement.dto.ImportRow;
+import com.example.stockmanagement.dto.ImportRowError;
+import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.model.Provenance;
+import com.example.stockmanagement.repository.CategoryRepository;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.repository.ProductRepository;
+import com.example.stockmanagement.service.CatalogVersions.Table;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class CatalogImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS =
+            List.of("sku", "name", "description", "price", "category", "quantity", "minstocklevel");
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockLedgerService stockLedgerService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersions catalogVersions;
+    private final ProductSearchIndex productSearchIndex;
+    private final int chunkSize;
+
+    public CatalogImportService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                                InventoryRepository inventoryRepository,
+                                StockLedgerService stockLedgerService, EntityManager entityManager, TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper, CatalogVersions catalogVersions,
+                                ProductSearchIndex productSearchIndex, @Value("${stock.import.chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stockLedgerService = stockLedgerService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.catalogVersions = catalogVersions;
+        this.productSearchIndex = productSearchIndex;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads products with their initial stock from a CSV (with header) or NDJSON stream and inserts them in
+     * chunks. Every chunk runs in its own transaction, so a failing chunk does not undo the ones before it.
+     * Imported products carry the given provenance tag, which a cleanup can later select them by.
+     */
+    public ImportReport importCatalog(InputStream in, ImportFormat format, String provenance) throws IOException {
+        if (provenance == null || provenance.isBlank() || provenance.length() > Provenance.MAX_LENGTH) {
+            throw new IllegalArgumentException("Provenance must be between 1 and " + Provenance.MAX_LENGTH
+                    + " characters");
+        }
+        long started = System.currentTimeMillis();
+        ImportProgress progress = new ImportProgress();
+
+        Map<String, Category> categoriesByName = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoriesByName.put(category.getName(), category);
+        }
+        Set<String> seenSkus = new HashSet<>();
+
+        System.out.println("Starting " + format + " catalog import...");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> csvColumns = format == ImportFormat.CSV ? readCsvHeader(reader.readLine()) : null;
+        long lineNumber = format == ImportFormat.CSV ? 1 : 0;
+
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.rowsRead++;
+
+            ImportRow row;
+            try {
+                row = format == ImportFormat.CSV ? parseCsvRow(line, csvColumns) : parseJsonRow(line);
+            } catch (IllegalArgumentException e) {
+                progress.reject(lineNumber, null, e.getMessage());
+                continue;
+            }
+
+            String error = validate(row, categoriesByName, seenSkus);
+            if (error != null) {
+                progress.reject(lineNumber, row.sku(), error);
+                continue;
+            }
+            chunk.add(new PendingRow(lineNumber, row));
+
+            if (chunk.size() >= chunkSize) {
+                importChunk(chunk, categoriesByName, provenance, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, categoriesByName, provenance, progress);
+        }
+
+        System.out.println("Catalog import completed: " + progress.imported + " imported, "
+                + progress.failed + " failed");
+        return new ImportReport(format, progress.rowsRead, progress.imported, progress.failed,
+                progress.errors, progress.errorsTruncated, System.currentTimeMillis() - started);
+    }
+
+    private void importChunk(List<PendingRow> chunk, Map<String, Category> categoriesByName, String provenance,
+                             ImportProgress progress) {
+        // SKUs already in the database are checked once per chunk instead of once per row
+        List<String> skus = chunk.stream().map(pending -> pending.row().sku()).toList();
+        Set<String> existingSkus = new HashSet<>(productRepository.findExistingSkus(skus));
+
+        List<Product> products = new ArrayList<>(chunk.size());
+        List<Inventory> inventories = new ArrayList<>(chunk.size());
+        List<PendingRow> accepted = new ArrayList<>(chunk.size());
+        for (PendingRow pending : chunk) {
+            ImportRow row = pending.row();
+            if (existingSkus.contains(row.sku())) {
+                progress.reject(pending.line(), row.sku(), "Product with SKU already exists: " + row.sku());
+                continue;
+            }
+            Category category = row.category() != null ? categoriesByName.get(row.category()) : null;
+            Product product = new Product(null, row.name(), row.description(), row.price(), row.sku(), category);
+            product.setProvenance(provenance);
+            Inventory inventory = new Inventory(null, product,
+                    row.quantity() != null ? row.quantity() : 0,
+                    row.minStockLevel() != null ? row.minStockLevel() : 0, null);
+            products.add(product);
+            inventories.add(inventory);
+            accepted.add(pending);
+        }
+        if (products.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.saveAll(products);
+                inventoryRepository.saveAll(inventories);
+                stockLedgerService.recordOpeningBalances(inventories);
+                catalogVersions.bump(Table.PRODUCTS, Table.INVENTORY);
+                productSearchIndex.index(products);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            progress.imported += products.size();
+        } catch (RuntimeException e) {
+            for (PendingRow pending : accepted) {
+                progress.reject(pending.line(), pending.row().sku(), "Chunk failed: " + e.getMessage());
+            }
+        }
+        System.out.println("Catalog import progress: " + progress.rowsRead + " rows read, "
+                + progress.imported + " imported, " + progress.failed + " failed");
+    }
+
+    private String validate(ImportRow row, Map<String, Category> categoriesByName, Set<String> seenSkus) {
+        if (row.sku() == null || row.sku().isBlank()) {
+            return "SKU is required";
+        }
+        if (row.name() == null || row.name().isBlank()) {
+            return "Product name is required";
+        }
+        if (row.price() == null || row.price().signum() <= 0) {
+            return "Price must be positive";
+        }
+        if (row.quantity() != null && row.quantity() < 0) {
+            return "Quantity cannot be negative";
+        }
+        if (row.minStockLevel() != null && row.minStockLevel() < 0) {
+            return "Minimum stock level cannot be negative";
+        }
+        if (row.category() != null && !categoriesByName.containsKey(row.category())) {
+            return "Category not found with name: " + row.category();
+        }
+        if (!seenSkus.add(row.sku())) {
+            return "Duplicate SKU in file: " + row.sku();
+        }
+        return null;
+    }
+
+    private ImportRow parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, ImportRow.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON line: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> readCsvHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("sku") || !columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain sku, name and price columns, got: " + header);
+        }
+        return columns;
+    }
+
+    private ImportRow parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsvLine(line);
+        Map<String, String> fields = new HashMap<>();
+        for (String column : CSV_COLUMNS) {
+            Integer index = columns.get(column);
+            if (index != null && index < values.size() && !values.get(index).isBlank()) {
+                fields.put(column, values.get(index).trim());
+            }
+        }
+        try {
+            return new ImportRow(
+                    fields.get("sku"),
+                    fields.get("name"),
+                    fields.get("description"),
+                    fields.containsKey("price") ? new BigDecimal(fields.get("price")) : null,
+                    fields.get("category"),
+                    fields.containsKey("quantity") ? Integer.valueOf(fields.get("quantity")) : null,
+                    fields.containsKey("minstocklevel") ? Integer.valueOf(fields.get("minstocklevel")) : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in CSV line: " + e.getMessage());
+        }
+    }
+
+    // Splits one CSV record, honouring double-quoted fields and "" escapes; records may not span lines
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field in CSV line");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record PendingRow(long line, ImportRow row) {
+    }
+
+    private static class ImportProgress {
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private boolean errorsTruncated;
+        private final List<ImportRowError> errors = new ArrayList<>();
+
+        private void reject(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(line, sku, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.event.InventoryChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One counter per catalog table, bumped by the services whenever they write to it. The list endpoints build
+ * their ETags from these counters, so a conditional GET is answered without reading or serializing anything.
+ */
+@Component
+public class CatalogVersions {
+
+    public enum Table {
+        CATEGORIES, PRODUCTS, INVENTORY
+    }
+
+    // Part of every ETag so tags handed out before a restart never match the fresh counters
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Table, AtomicLong> versions = new EnumMap<>(Table.class);
+
+    public CatalogVersions() {
+        for (Table table : Table.values()) {
+            versions.put(table, new AtomicLong());
+        }
+    }
+
+    /**
+     * Inside a transaction the bump happens once it completes, so a reader never pairs the new tag with rows
+     * that are not visible yet. Rolled-back transactions still bump, which only costs clients one refetch.
+     */
+    public void bump(Table... tables) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    increment(tables);
+                }
+            });
+        } else {
+            increment(tables);
+        }
+    }
+
+    // Every stock change already publishes this event, so inventory writes need no explicit bump
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        increment(Table.INVENTORY);
+    }
+
+    public String etag(Table... tables) {
+        StringBuilder tag = new StringBuilder("\"").append(epoch);
+        for (Table table : tables) {
+            tag.append('-').append(versions.get(table).get());
+        }
+        return tag.append('"').toString();
+    }
+
+    private void increment(Table... tables) {
+        for (Table table : tables) {
+            versions.get(table).incrementAndGet();
+        }
+    }
+}
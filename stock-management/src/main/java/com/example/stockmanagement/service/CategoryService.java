@@ -1,12 +1,28 @@
 package com.example.stockmanagement.service;
 
+import com.example.stockmanagement.config.CacheConfig;
+import com.example.stockmanagement.dto.CategorySummary;
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.KeysetCursor;
+import com.example.stockmanagement.dto.ProductKey;
 import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.model.SyncTombstone.EntityType;
 import com.example.stockmanagement.repository.CategoryRepository;
 import com.example.stockmanagement.repository.ProductRepository;
+import com.example.stockmanagement.service.CatalogVersions.Table;
 import jakarta.persistence.EntityNotFoundException;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -15,34 +31,83 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+    private final CatalogVersions catalogVersions;
+    private final SyncService syncService;
 
-    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                           CacheManager cacheManager, CatalogVersions catalogVersions, SyncService syncService) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
+        this.cacheManager = cacheManager;
+        this.catalogVersions = catalogVersions;
+        this.syncService = syncService;
     }
 
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    // Read-only transactions run with FlushMode.MANUAL, so Hibernate never flushes or dirty-checks on the way out
+    @Transactional(readOnly = true)
+    public List<CategorySummary> getAllCategories() {
+        return categoryRepository.findAllSummaries();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<CategorySummary> getCategoryPage(Integer limit, String after, String sort) {
+        String sortField = sort != null ? sort : "id";
+        Pageable pageable = PageRequest.ofSize(KeysetCursor.resolveLimit(limit));
+        KeysetCursor cursor = after != null ? KeysetCursor.decode(after, sortField) : null;
+
+        Slice<CategorySummary> slice;
+        switch (sortField) {
+            case "id" -> slice = categoryRepository.findPageOrderById(cursor != null ? cursor.id() : 0L, pageable);
+            case "name" -> slice = categoryRepository.findPageOrderByName(
+                    cursor != null ? cursor.value() : "", cursor != null ? cursor.id() : 0L, pageable);
+            default -> throw new IllegalArgumentException("Unsupported sort field for categories: " + sortField);
+        }
+
+        String next = null;
+        if (slice.hasNext()) {
+            CategorySummary last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            next = new KeysetCursor(sortField, last.id(), "name".equals(sortField) ? last.name() : null).encode();
+        }
+        return new CursorPage<>(slice.getContent(), next);
+    }
+
+    // Every caller gets the same cached instance, so it must be treated as read-only; writes below always start
+    // from a fresh read
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id", sync = true)
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
+        return findCategory(id);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES_BY_NAME, key = "#name", sync = true)
+    public Category getCategoryByName(String name) {
+        return categoryRepository.findByName(name)
+                .orElseThrow(() -> new EntityNotFoundException("Category not found with name: " + name));
     }
 
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogVersions.bump(Table.CATEGORIES);
+        return savedCategory;
     }
 
     public Category updateCategory(Long id, Category categoryDetails) {
-        Category category = getCategoryById(id);
+        Category category = findCategory(id);
+        String previousName = category.getName();
         category.setName(categoryDetails.getName());
         category.setDescription(categoryDetails.getDescription());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+
+        evictCategory(id, previousName, savedCategory.getName());
+        catalogVersions.bump(Table.CATEGORIES);
+        // Cached products carry their category, so this category's products would keep showing the old name
+        evictProductsOf(id);
+        return savedCategory;
     }
 
+    @Transactional
     public void deleteCategory(Long id) {
-        Category category = getCategoryById(id);
+        Category category = findCategory(id);
 
         // Check if category has associated products
         if (!productRepository.findByCategory(category).isEmpty()) {
@@ -51,5 +116,54 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        evictCategory(id, category.getName());
+        catalogVersions.bump(Table.CATEGORIES);
+        syncService.recordDeletion(EntityType.CATEGORY, id);
+    }
+
+    private Category findCategory(Long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
+    }
+
+    // Deferred until the transaction completes, for the same reason as ProductService.evictProduct
+    private void evictCategory(Long id, String... names) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictCategoryNow(id, names);
+                }
+            });
+        } else {
+            evictCategoryNow(id, names);
+        }
+    }
+
+    private void evictCategoryNow(Long id, String... names) {
+        Cache categories = cacheManager.getCache(CacheConfig.CATEGORIES);
+        Cache categoriesByName = cacheManager.getCache(CacheConfig.CATEGORIES_BY_NAME);
+        if (categories != null) {
+            categories.evict(id);
+        }
+        if (categoriesByName != null) {
+            for (String name : names) {
+                categoriesByName.evict(name);
+            }
+        }
+    }
+
+    // Runs after the save has committed, so a product loaded again from here on already sees the new category
+    private void evictProductsOf(Long categoryId) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Cache productsBySku = cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU);
+        for (ProductKey key : productRepository.findKeysByCategoryId(categoryId)) {
+            if (products != null) {
+                products.evict(key.getId());
+            }
+            if (productsBySku != null) {
+                productsBySku.evict(key.getSku());
+            }
+        }
     }
 }
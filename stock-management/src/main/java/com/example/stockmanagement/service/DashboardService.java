@@ -0,0 +1,47 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.config.CacheConfig;
+import com.example.stockmanagement.dto.DashboardSummary;
+import com.example.stockmanagement.dto.StockTotals;
+import com.example.stockmanagement.repository.CategoryRepository;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.repository.ProductRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class DashboardService {
+
+    private static final int LOW_STOCK_PREVIEW_SIZE = 5;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final InventoryRepository inventoryRepository;
+
+    public DashboardService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                            InventoryRepository inventoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    // Every figure is an aggregate query, so the summary stays small however large the catalog is
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD_SUMMARY, sync = true)
+    @Transactional(readOnly = true)
+    public DashboardSummary getSummary() {
+        StockTotals totals = inventoryRepository.getStockTotals();
+        return new DashboardSummary(
+                productRepository.count(),
+                categoryRepository.count(),
+                totals.totalUnits(),
+                totals.stockValue(),
+                inventoryRepository.countLowStockItems(),
+                categoryRepository.getCategoryBreakdown(),
+                inventoryRepository.findLowStockPreview(PageRequest.ofSize(LOW_STOCK_PREVIEW_SIZE)),
+                LocalDateTime.now());
+    }
+}
@@ -1,144 +1,331 @@
 package com.example.stockmanagement.service;
 
-import com.example.stockmanagement.repository.CategoryRepository;
-import com.example.stockmanagement.repository.InventoryRepository;
-import com.example.stockmanagement.repository.ProductRepository;
+import com.example.stockmanagement.config.CacheConfig;
+import com.example.stockmanagement.dto.CleanupJobStatus;
+import com.example.stockmanagement.dto.CleanupJobStatus.State;
+import com.example.stockmanagement.model.Provenance;
+import com.example.stockmanagement.service.CatalogVersions.Table;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes data with set-based bulk deletes instead of loading and deleting entities one by one. A cleanup runs as
+ * a background job, one at a time: every table is walked in id ranges of {@code chunk-size}, each range deleted in
+ * its own transaction, in foreign key order, so a million-row wipe neither holds one huge transaction nor pulls
+ * rows into memory. Jobs report their progress until they drop out of the recent job history.
+ * <p>
+ * Reservations go first. They only refer to their product by id, so nothing else would remove them; their expiry
+ * timers are dropped together with the rows.
+ */
 @Service
 public class DataCleanupService {
 
-    private final InventoryRepository inventoryRepository;
-    private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private static final int JOB_HISTORY_SIZE = 20;
+    private static final String[] CATALOG_CACHES = {CacheConfig.PRODUCTS, CacheConfig.PRODUCTS_BY_SKU,
+            CacheConfig.CATEGORIES, CacheConfig.CATEGORIES_BY_NAME, CacheConfig.DASHBOARD_SUMMARY};
+
+    // Everything, children first. The ledger goes too, as a full cleanup has always reset it
+    private static final List<Step> ALL_DATA = List.of(
+            Step.reservations("SELECT MIN(e.id), MAX(e.id) FROM Reservation e",
+                    "SELECT e.id FROM Reservation e WHERE e.id BETWEEN :from AND :to"),
+            Step.all("stock_snapshots", "StockSnapshot"),
+            Step.all("stock_movements", "StockMovement"),
+            Step.all("inventory", "Inventory", Table.INVENTORY),
+            Step.all("products", "Product", Table.PRODUCTS),
+            Step.all("categories", "Category", Table.CATEGORIES));
+
+    // One provenance; the ledger keeps the history of the deleted products, and categories still used by products
+    // from elsewhere are kept
+    private static final List<Step> BY_PROVENANCE = List.of(
+            Step.reservations(
+                    "SELECT MIN(r.id), MAX(r.id) FROM Reservation r WHERE r.productId IN "
+                            + "(SELECT p.id FROM Product p WHERE p.provenance = :provenance)",
+                    "SELECT r.id FROM Reservation r WHERE r.id BETWEEN :from AND :to AND r.productId IN "
+                            + "(SELECT p.id FROM Product p WHERE p.provenance = :provenance)"),
+            new Step("inventory",
+                    "SELECT MIN(p.id), MAX(p.id) FROM Product p WHERE p.provenance = :provenance",
+                    "DELETE FROM Inventory i WHERE i.product.id IN (SELECT p.id FROM Product p "
+                            + "WHERE p.provenance = :provenance AND p.id BETWEEN :from AND :to)",
+                    new Table[]{Table.INVENTORY}),
+            new Step("products",
+                    "SELECT MIN(p.id), MAX(p.id) FROM Product p WHERE p.provenance = :provenance",
+                    "DELETE FROM Product p WHERE p.provenance = :provenance AND p.id BETWEEN :from AND :to",
+                    new Table[]{Table.PRODUCTS}),
+            new Step("categories",
+                    "SELECT MIN(c.id), MAX(c.id) FROM Category c WHERE c.provenance = :provenance",
+                    "DELETE FROM Category c WHERE c.provenance = :provenance AND c.id BETWEEN :from AND :to "
+                            + "AND NOT EXISTS (SELECT 1 FROM Product p WHERE p.category = c)",
+                    new Table[]{Table.CATEGORIES}));
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final CatalogVersions catalogVersions;
+    private final SyncService syncService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ReservationService reservationService;
+    private final InMemoryStockEngine inMemoryStockEngine;
+    private final int chunkSize;
+
+    private final ExecutorService jobExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("data-cleanup-"));
+    private final AtomicLong jobIds = new AtomicLong();
+    // Guarded by itself; the oldest jobs are forgotten first
+    private final Map<Long, Job> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Job> eldest) {
+            return size() > JOB_HISTORY_SIZE;
+        }
+    };
 
     public DataCleanupService(
-            InventoryRepository inventoryRepository,
-            ProductRepository productRepository,
-            CategoryRepository categoryRepository) {
-        this.inventoryRepository = inventoryRepository;
-        this.productRepository = productRepository;
-        this.categoryRepository = categoryRepository;
+            EntityManager entityManager,
+            TransactionTemplate transactionTemplate,
+            CacheManager cacheManager,
+            CatalogVersions catalogVersions,
+            SyncService syncService,
+            ProductSearchIndex productSearchIndex,
+            ReservationService reservationService,
+            InMemoryStockEngine inMemoryStockEngine,
+            @Value("${stock.cleanup.chunk-size:10000}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("stock.cleanup.chunk-size must be positive");
+        }
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.catalogVersions = catalogVersions;
+        this.syncService = syncService;
+        this.productSearchIndex = productSearchIndex;
+        this.reservationService = reservationService;
+        this.inMemoryStockEngine = inMemoryStockEngine;
+        this.chunkSize = chunkSize;
     }
 
-    @Transactional
-    public void cleanupAllData() {
-        System.out.println("Starting data cleanup...");
-        
-        // Delete in proper order to avoid foreign key constraints
-        long inventoryCount = inventoryRepository.count();
-        inventoryRepository.deleteAll();
-        System.out.println("Deleted " + inventoryCount + " inventory records");
-        
-        long productCount = productRepository.count();
-        productRepository.deleteAll();
-        System.out.println("Deleted " + productCount + " products");
-        
-        long categoryCount = categoryRepository.count();
-        categoryRepository.deleteAll();
-        System.out.println("Deleted " + categoryCount + " categories");
-        
-        System.out.println("Data cleanup completed successfully!");
+    public CleanupJobStatus cleanupAllData() {
+        return submit(null, ALL_DATA);
     }
 
-    @Transactional
-    public void cleanupSeededData() {
-        System.out.println("Starting seeded data cleanup...");
-        
-        // Delete specific seeded data by SKU patterns or names
-        // This is safer than deleting all data
-        
-        // Delete inventory for seeded products
-        productRepository.findBySku("ELEC-001").ifPresent(product -> {
-            inventoryRepository.findByProduct(product).ifPresent(inventory -> {
-                inventoryRepository.delete(inventory);
-                System.out.println("Deleted inventory for: " + product.getName());
-            });
-        });
-        
-        productRepository.findBySku("ELEC-002").ifPresent(product -> {
-            inventoryRepository.findByProduct(product).ifPresent(inventory -> {
-                inventoryRepository.delete(inventory);
-                System.out.println("Deleted inventory for: " + product.getName());
-            });
-        });
-        
-        productRepository.findBySku("CLTH-001").ifPresent(product -> {
-            inventoryRepository.findByProduct(product).ifPresent(inventory -> {
-                inventoryRepository.delete(inventory);
-                System.out.println("Deleted inventory for: " + product.getName());
-            });
-        });
-        
-        productRepository.findBySku("CLTH-002").ifPresent(product -> {
-            inventoryRepository.findByProduct(product).ifPresent(inventory -> {
-                inventoryRepository.delete(inventory);
-                System.out.println("Deleted inventory for: " + product.getName());
-            });
-        });
-        
-        productRepository.findBySku("FURN-001").ifPresent(product -> {
-            inventoryRepository.findByProduct(product).ifPresent(inventory -> {
-                inventoryRepository.delete(inventory);
-                System.out.println("Deleted inventory for: " + product.getName());
-            });
-        });
-        
-        productRepository.findBySku("FURN-002").ifPresent(product -> {
-            inventoryRepository.findByProduct(product).ifPresent(inventory -> {
-                inventoryRepository.delete(inventory);
-                System.out.println("Deleted inventory for: " + product.getName());
-            });
-        });
-        
-        // Delete seeded products
-        productRepository.findBySku("ELEC-001").ifPresent(product -> {
-            productRepository.delete(product);
-            System.out.println("Deleted product: " + product.getName());
-        });
-        
-        productRepository.findBySku("ELEC-002").ifPresent(product -> {
-            productRepository.delete(product);
-            System.out.println("Deleted product: " + product.getName());
-        });
-        
-        productRepository.findBySku("CLTH-001").ifPresent(product -> {
-            productRepository.delete(product);
-            System.out.println("Deleted product: " + product.getName());
-        });
-        
-        productRepository.findBySku("CLTH-002").ifPresent(product -> {
-            productRepository.delete(product);
-            System.out.println("Deleted product: " + product.getName());
-        });
-        
-        productRepository.findBySku("FURN-001").ifPresent(product -> {
-            productRepository.delete(product);
-            System.out.println("Deleted product: " + product.getName());
-        });
-        
-        productRepository.findBySku("FURN-002").ifPresent(product -> {
-            productRepository.delete(product);
-            System.out.println("Deleted product: " + product.getName());
-        });
-        
-        // Delete seeded categories
-        categoryRepository.findByName("Electronics").ifPresent(category -> {
-            categoryRepository.delete(category);
-            System.out.println("Deleted category: " + category.getName());
-        });
-        
-        categoryRepository.findByName("Clothing").ifPresent(category -> {
-            categoryRepository.delete(category);
-            System.out.println("Deleted category: " + category.getName());
-        });
-        
-        categoryRepository.findByName("Furniture").ifPresent(category -> {
-            categoryRepository.delete(category);
-            System.out.println("Deleted category: " + category.getName());
+    public CleanupJobStatus cleanupSeededData() {
+        return cleanupByProvenance(Provenance.SEED);
+    }
+
+    public CleanupJobStatus cleanupByProvenance(String provenance) {
+        if (provenance == null || provenance.isBlank()) {
+            throw new IllegalArgumentException("Provenance is required");
+        }
+        return submit(provenance, BY_PROVENANCE);
+    }
+
+    public CleanupJobStatus getJob(long id) {
+        synchronized (jobs) {
+            Job job = jobs.get(id);
+            if (job == null) {
+                throw new EntityNotFoundException("Cleanup job not found with id: " + id);
+            }
+            return job.status();
+        }
+    }
+
+    public List<CleanupJobStatus> getJobs() {
+        synchronized (jobs) {
+            List<CleanupJobStatus> statuses = new ArrayList<>(jobs.size());
+            jobs.values().forEach(job -> statuses.add(job.status()));
+            return statuses;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    private CleanupJobStatus submit(String provenance, List<Step> steps) {
+        Job job = new Job(jobIds.incrementAndGet(), provenance, steps);
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+        }
+        jobExecutor.execute(() -> run(job));
+        return job.status();
+    }
+
+    private void run(Job job) {
+        String scope = job.provenance == null ? "all data" : "data with provenance '" + job.provenance + "'";
+        System.out.println("Starting cleanup job " + job.id + " for " + scope + "...");
+        job.start();
+        String failure = null;
+        try {
+            for (Step step : job.steps) {
+                long deleted = runStep(job, step);
+                System.out.println("Cleanup job " + job.id + ": deleted " + deleted + " " + step.table);
+                job.stepDone();
+            }
+        } catch (RuntimeException e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+
+        // Even a failed job has removed some rows, so clients and caches start over either way
+        try {
+            clearCatalogCaches();
+            catalogVersions.bump(Table.values());
+            syncService.recordReset();
+            productSearchIndex.rebuild();
+            inMemoryStockEngine.dropCountersWithoutInventory();
+        } catch (RuntimeException e) {
+            failure = failure != null ? failure : "Cleanup finished but refreshing derived state failed: " + e.getMessage();
+        }
+        job.finish(failure);
+        System.out.println(failure == null ? "Cleanup job " + job.id + " completed successfully!"
+                : "Cleanup job " + job.id + " failed: " + failure);
+    }
+
+    // Walks the step's id range chunk by chunk; ids are sequence generated, so ranges are dense enough
+    private long runStep(Job job, Step step) {
+        Object[] range = transactionTemplate.execute(status ->
+                (Object[]) bind(entityManager.createQuery(step.rangeQuery), job, null, null).getSingleResult());
+        if (range == null || range[0] == null) {
+            job.progress(step.table, 0, 1);
+            return 0;
+        }
+        long first = ((Number) range[0]).longValue();
+        long last = ((Number) range[1]).longValue();
+        long total = 0;
+        job.progress(step.table, 0, 0);
+        for (long start = first; start <= last; start += chunkSize) {
+            long from = start;
+            long to = Math.min(start + chunkSize - 1, last);
+            int deleted = step.idQuery != null ? deleteReservations(job, step, from, to)
+                    : transactionTemplate.execute(status -> {
+                        catalogVersions.bump(step.versionedTables);
+                        return bind(entityManager.createQuery(step.deleteQuery), job, from, to).executeUpdate();
+                    });
+            total += deleted;
+            job.progress(step.table, total, (double) (to - first + 1) / (last - first + 1));
+            // Cached products would otherwise outlive the rows just removed
+            if (step.versionedTables.length > 0) {
+                clearCatalogCaches();
+            }
+        }
+        return total;
+    }
+
+    // The ids are read first so the timers of exactly these reservations can be dropped once the delete committed
+    private int deleteReservations(Job job, Step step, long from, long to) {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            @SuppressWarnings("unchecked")
+            List<Long> chunk = bind(entityManager.createQuery(step.idQuery), job, from, to).getResultList();
+            if (!chunk.isEmpty()) {
+                entityManager.createQuery(step.deleteQuery).setParameter("ids", chunk).executeUpdate();
+            }
+            return chunk;
         });
-        
-        System.out.println("Seeded data cleanup completed successfully!");
+        reservationService.dropExpiryTimers(ids);
+        return ids.size();
+    }
+
+    private static Query bind(Query query, Job job, Long from, Long to) {
+        if (job.provenance != null) {
+            query.setParameter("provenance", job.provenance);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+            query.setParameter("to", to);
+        }
+        return query;
+    }
+
+    private void clearCatalogCaches() {
+        for (String name : CATALOG_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    // idQuery is only set for reservations: it picks the ids one chunk deletes
+    private record Step(String table, String rangeQuery, String deleteQuery, Table[] versionedTables,
+                        String idQuery) {
+
+        Step(String table, String rangeQuery, String deleteQuery, Table[] versionedTables) {
+            this(table, rangeQuery, deleteQuery, versionedTables, null);
+        }
+
+        static Step all(String table, String entity, Table... versionedTables) {
+            return new Step(table, "SELECT MIN(e.id), MAX(e.id) FROM " + entity + " e",
+                    "DELETE FROM " + entity + " e WHERE e.id BETWEEN :from AND :to", versionedTables);
+        }
+
+        static Step reservations(String rangeQuery, String idQuery) {
+            return new Step("reservations", rangeQuery, "DELETE FROM Reservation r WHERE r.id IN :ids",
+                    new Table[0], idQuery);
+        }
+    }
+
+    private static class Job {
+
+        private final long id;
+        private final String provenance;
+        private final List<Step> steps;
+        private final Map<String, Long> deleted = new LinkedHashMap<>();
+        private State state = State.QUEUED;
+        private String currentTable;
+        private int stepsDone;
+        private double stepProgress;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private String error;
+
+        Job(long id, String provenance, List<Step> steps) {
+            this.id = id;
+            this.provenance = provenance;
+            this.steps = steps;
+        }
+
+        synchronized void start() {
+            state = State.RUNNING;
+            startedAt = LocalDateTime.now();
+        }
+
+        synchronized void progress(String table, long deletedSoFar, double tableProgress) {
+            currentTable = table;
+            deleted.put(table, deletedSoFar);
+            stepProgress = tableProgress;
+        }
+
+        synchronized void stepDone() {
+            stepsDone++;
+            stepProgress = 0;
+        }
+
+        synchronized void finish(String failure) {
+            state = failure == null ? State.COMPLETED : State.FAILED;
+            error = failure;
+            currentTable = null;
+            finishedAt = LocalDateTime.now();
+        }
+
+        synchronized CleanupJobStatus status() {
+            double progress = state == State.COMPLETED ? 1 : (stepsDone + stepProgress) / steps.size();
+            return new CleanupJobStatus(id, provenance, state, currentTable, progress, new LinkedHashMap<>(deleted),
+                    startedAt, finishedAt, error);
+        }
     }
 }
@@ -0,0 +1,687 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.EngineReconciliation;
+import com.example.stockmanagement.event.InventoryChangedEvent;
+import com.example.stockmanagement.exception.ServiceUnavailableException;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.StockEngineCheckpoint;
+import com.example.stockmanagement.model.StockMovement;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.repository.StockEngineCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in flash-sale engine: for the configured products the authoritative quantity is an in-memory counter, so a
+ * removal never oversells and never waits for a row lock. Every change is appended to a local write-ahead log and
+ * persisted to the inventory table by a write-behind flusher, which also advances a checkpoint in the same
+ * transaction. On startup the log tail past the checkpoint is replayed into the database before any counter is
+ * loaded.
+ * <p>
+ * With durable acks a change only becomes visible once the log has taken it: until then it is held in escrow
+ * against the counter, so removals admitted meanwhile cannot spend stock that is not there yet, and a change the
+ * log could not take is simply released and the caller gets a 503. Nothing published is ever taken back. Until the
+ * writer has repaired the log (truncated it back to the last good write) further changes are refused.
+ */
+@Service
+public class InMemoryStockEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryStockEngine.class);
+
+    private static final int WAL_WRITE_BATCH = 4096;
+    // Product ids per existence check when dropping counters
+    private static final int PRUNE_BATCH = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final StockEngineCheckpointRepository checkpointRepository;
+    private final StockLedgerService stockLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryMetrics inventoryMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final Set<Long> productIds;
+    private final Path walPath;
+    private final boolean durableAck;
+    private final boolean fsync;
+    private final Duration durableAckTimeout;
+
+    private final ConcurrentMap<Long, HotCounter> counters = new ConcurrentHashMap<>();
+
+    // Assigning the sequence and enqueueing happen together, so the log is written in sequence order
+    private final Object walLock = new Object();
+    private final BlockingQueue<WalRecord> walQueue = new LinkedBlockingQueue<>();
+    private long lastSequence;
+    private FileChannel walChannel;
+    private Thread walWriter;
+    private volatile boolean running;
+    private volatile long lastWrittenSequence;
+    private volatile long checkpointSequence;
+    // Set by the writer when an append fails and cleared once the log is repaired
+    private volatile Throwable logFailure;
+    // Log size after the last successful append; only the writer thread touches it
+    private long walGoodSize;
+
+    // Records written to the log but not yet persisted to the inventory table
+    private final Object pendingLock = new Object();
+    private List<WalRecord> pending = new ArrayList<>();
+
+    public InMemoryStockEngine(InventoryRepository inventoryRepository,
+                               StockEngineCheckpointRepository checkpointRepository,
+                               StockLedgerService stockLedgerService, ApplicationEventPublisher eventPublisher,
+                               InventoryMetrics inventoryMetrics, TransactionTemplate transactionTemplate,
+                               @Value("${stock.memory-engine.enabled:false}") boolean enabled,
+                               @Value("${stock.memory-engine.product-ids:}") String productIds,
+                               @Value("${stock.memory-engine.wal-path:data/stock-engine.wal}") String walPath,
+                               @Value("${stock.memory-engine.durable-ack:true}") boolean durableAck,
+                               @Value("${stock.memory-engine.fsync:true}") boolean fsync,
+                               @Value("${stock.memory-engine.durable-ack-timeout:5s}") Duration durableAckTimeout) {
+        this.inventoryRepository = inventoryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.stockLedgerService = stockLedgerService;
+        this.eventPublisher = eventPublisher;
+        this.inventoryMetrics = inventoryMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.productIds = parseProductIds(productIds);
+        this.walPath = Path.of(walPath);
+        this.durableAck = durableAck;
+        this.fsync = fsync;
+        this.durableAckTimeout = durableAckTimeout;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (walPath.getParent() != null) {
+            Files.createDirectories(walPath.getParent());
+        }
+        recover();
+        walChannel = openLog();
+        running = true;
+        walWriter = new Thread(this::writeLog, "stock-engine-wal");
+        walWriter.start();
+        log.info("In-memory stock engine started for {}, log at {}",
+                productIds.isEmpty() ? "all products" : "products " + productIds, walPath);
+    }
+
+    // Opens the log for appending; package-private so tests can hand in a channel that fails on demand
+    FileChannel openLog() throws IOException {
+        return FileChannel.open(walPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    public boolean manages(Long productId) {
+        return enabled && productId != null && (productIds.isEmpty() || productIds.contains(productId));
+    }
+
+    public void checkNotManaged(Long productId) {
+        if (manages(productId)) {
+            throw new IllegalStateException("Inventory for product id " + productId
+                    + " is managed by the in-memory stock engine, only add, remove and set stock are allowed");
+        }
+    }
+
+    public Inventory addStock(Long productId, int quantity) {
+        HotCounter counter = writableCounter(productId);
+        if (!counter.admitAddition(quantity, admissionDeadline())) {
+            throw new IllegalStateException("Quantity would exceed the maximum stock level of " + Integer.MAX_VALUE);
+        }
+        return apply(counter, productId, quantity, StockMovement.Reason.STOCK_IN);
+    }
+
+    public Inventory removeStock(Long productId, int quantity) {
+        HotCounter counter = writableCounter(productId);
+        if (!counter.admitRemoval(quantity, admissionDeadline())) {
+            inventoryMetrics.recordRejection("engine");
+            throw new IllegalStateException("Not enough stock available");
+        }
+        return apply(counter, productId, -quantity, StockMovement.Reason.STOCK_OUT);
+    }
+
+    public Inventory setStock(Long productId, int quantity) {
+        HotCounter counter = writableCounter(productId);
+        int delta = counter.admitAdjustment(quantity, admissionDeadline());
+        return apply(counter, productId, delta, StockMovement.Reason.ADJUSTMENT);
+    }
+
+    public Inventory getInventory(Long productId) {
+        HotCounter counter = counter(productId);
+        return counter.view(counter.quantity());
+    }
+
+    private long admissionDeadline() {
+        return System.nanoTime() + durableAckTimeout.toNanos();
+    }
+
+    /**
+     * Hands an admitted change to the log. Without durable acks it is published right away and never taken back,
+     * see {@link #unlogged}; with them the writer publishes it once the log has it, and the caller gets the quantity
+     * as of that moment.
+     */
+    private Inventory apply(HotCounter counter, Long productId, int delta, StockMovement.Reason reason) {
+        if (!durableAck) {
+            int quantity = counter.publish(delta, reason);
+            enqueue(counter, productId, delta, reason, null);
+            return counter.view(quantity);
+        }
+        WalRecord record = enqueue(counter, productId, delta, reason, new CompletableFuture<>());
+        return counter.view(awaitDurable(record));
+    }
+
+    private WalRecord enqueue(HotCounter counter, Long productId, int delta, StockMovement.Reason reason,
+                              CompletableFuture<Integer> durable) {
+        synchronized (walLock) {
+            WalRecord record = new WalRecord(++lastSequence, productId, delta, reason, counter, durable);
+            walQueue.add(record);
+            return record;
+        }
+    }
+
+    private int awaitDurable(WalRecord record) {
+        try {
+            return record.durable.get(durableAckTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new ServiceUnavailableException("Stock change could not be logged and was not applied: "
+                    + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Stock engine log did not confirm the change within "
+                    + durableAckTimeout + ", its outcome is unknown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the stock engine log");
+        }
+    }
+
+    private HotCounter writableCounter(Long productId) {
+        Throwable failure = logFailure;
+        if (durableAck && failure != null) {
+            throw new ServiceUnavailableException("Stock engine log is failing, stock changes are refused until it "
+                    + "recovers: " + failure.getMessage());
+        }
+        return counter(productId);
+    }
+
+    private HotCounter counter(Long productId) {
+        if (!running) {
+            throw new IllegalStateException("In-memory stock engine is not running");
+        }
+        return counters.computeIfAbsent(productId, id -> {
+            Inventory inventory = inventoryRepository.findByProductId(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Inventory not found for product id: " + id));
+            return new HotCounter(inventory);
+        });
+    }
+
+    // Single writer: appends queued records in sequence order and truncates the log once all of it is checkpointed
+    private void writeLog() {
+        List<WalRecord> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(128 * WAL_WRITE_BATCH);
+        while (running || !walQueue.isEmpty()) {
+            WalRecord first;
+            try {
+                first = walQueue.poll(50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                if (logFailure != null) {
+                    repairLog();
+                } else {
+                    truncateIfCheckpointed();
+                }
+                continue;
+            }
+            batch.add(first);
+            walQueue.drainTo(batch, WAL_WRITE_BATCH - 1);
+            try {
+                if (logFailure != null && !repairLog()) {
+                    unlogged(batch, logFailure);
+                } else {
+                    append(batch, buffer);
+                }
+            } catch (Throwable e) {
+                // Whatever went wrong, nobody may be left waiting on this batch
+                logFailure = e;
+                log.error("Stock engine log writer failed", e);
+                unlogged(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void append(List<WalRecord> batch, ByteBuffer buffer) {
+        buffer.clear();
+        for (WalRecord record : batch) {
+            buffer.put(record.toLine().getBytes(StandardCharsets.UTF_8));
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                walChannel.write(buffer);
+            }
+            if (fsync) {
+                walChannel.force(false);
+            }
+            walGoodSize = walChannel.size();
+        } catch (IOException e) {
+            logFailure = e;
+            log.warn("Failed to write stock engine log: {}", e.getMessage());
+            unlogged(batch, e);
+            return;
+        }
+
+        lastWrittenSequence = batch.get(batch.size() - 1).sequence;
+        // Published before the write-behind can see the records, so it never takes off what was not yet counted, and
+        // acknowledged only after, so a caller that flushes right away finds its own change
+        int[] quantities = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            WalRecord record = batch.get(i);
+            if (record.durable != null) {
+                quantities[i] = record.counter.publish(record.delta, record.reason);
+            }
+        }
+        synchronized (pendingLock) {
+            pending.addAll(batch);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).durable != null) {
+                batch.get(i).durable.complete(quantities[i]);
+            }
+        }
+    }
+
+    /**
+     * Handles a batch the log did not take. Durable callers are waiting and their changes were never published, so
+     * the escrow is released and they get the failure; anything already acknowledged is left alone. Without durable
+     * acks the callers already returned, so the batch still goes to the write-behind and only crash safety is lost.
+     */
+    private void unlogged(List<WalRecord> batch, Throwable cause) {
+        if (!durableAck) {
+            synchronized (pendingLock) {
+                pending.addAll(batch);
+            }
+            return;
+        }
+        for (WalRecord record : batch) {
+            if (!record.durable.isDone()) {
+                record.counter.release(record.delta, record.reason);
+                record.durable.completeExceptionally(cause);
+            }
+        }
+    }
+
+    // Cuts off whatever a failed append left behind, so a torn line cannot hide later records from recovery
+    private boolean repairLog() {
+        try {
+            if (!walChannel.isOpen()) {
+                walChannel = openLog();
+            }
+            if (walChannel.size() > walGoodSize) {
+                walChannel.truncate(walGoodSize);
+            }
+            walChannel.force(false);
+        } catch (IOException e) {
+            return false;
+        }
+        logFailure = null;
+        log.info("Stock engine log recovered, accepting changes again");
+        return true;
+    }
+
+    private void truncateIfCheckpointed() {
+        try {
+            if (lastWrittenSequence > 0 && checkpointSequence >= lastWrittenSequence && walChannel.size() > 0) {
+                walChannel.truncate(0);
+                walGoodSize = 0;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to truncate stock engine log: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.memory-engine.flush-interval:PT0.1S}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<WalRecord> records;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            records = pending;
+            pending = new ArrayList<>();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(records));
+        } catch (RuntimeException e) {
+            // Keep the records for the next run, ahead of anything written since
+            synchronized (pendingLock) {
+                records.addAll(pending);
+                pending = records;
+            }
+            log.warn("Stock engine write-behind failed, will retry: {}", e.getMessage());
+            return;
+        }
+
+        Map<Long, Long> netDeltas = new HashMap<>();
+        for (WalRecord record : records) {
+            netDeltas.merge(record.productId, (long) record.delta, Long::sum);
+        }
+        netDeltas.forEach((productId, delta) -> {
+            HotCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.flushed(delta);
+            }
+        });
+        checkpointSequence = records.get(records.size() - 1).sequence;
+    }
+
+    // Applies the net change per product in one locked read and batched update, with one ledger line per reason
+    private void persist(List<WalRecord> records) {
+        Map<Long, Map<StockMovement.Reason, Long>> deltas = new HashMap<>();
+        long maxSequence = 0;
+        for (WalRecord record : records) {
+            deltas.computeIfAbsent(record.productId, id -> new EnumMap<>(StockMovement.Reason.class))
+                    .merge(record.reason, (long) record.delta, Long::sum);
+            maxSequence = Math.max(maxSequence, record.sequence);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> missing = new HashSet<>(deltas.keySet());
+        List<StockMovement> ledgerEntries = new ArrayList<>();
+        for (Inventory inventory : inventoryRepository.findAllByProductIdInForUpdate(deltas.keySet())) {
+            Long productId = inventory.getProduct().getId();
+            missing.remove(productId);
+            boolean wasLowStock = inventory.isLowStock();
+            long net = 0;
+            for (Map.Entry<StockMovement.Reason, Long> entry : deltas.get(productId).entrySet()) {
+                if (entry.getValue() != 0) {
+                    ledgerEntries.add(new StockMovement(productId, Math.toIntExact(entry.getValue()), entry.getKey(), now));
+                }
+                net += entry.getValue();
+            }
+            if (net != 0) {
+                inventory.setQuantity(Math.toIntExact(inventory.getQuantity() + net));
+                eventPublisher.publishEvent(InventoryChangedEvent.of(
+                        InventoryChangedEvent.ChangeType.UPDATED, inventory, wasLowStock));
+            }
+        }
+        if (!missing.isEmpty()) {
+            log.warn("Stock engine dropped changes for products without inventory: {}", missing);
+        }
+        stockLedgerService.recordAll(ledgerEntries);
+
+        StockEngineCheckpoint checkpoint = checkpointRepository.findById(StockEngineCheckpoint.SINGLETON_ID)
+                .orElseGet(() -> new StockEngineCheckpoint(StockEngineCheckpoint.SINGLETON_ID, 0));
+        checkpoint.setWalSequence(Math.max(checkpoint.getWalSequence(), maxSequence));
+        checkpointRepository.save(checkpoint);
+    }
+
+    // Replays log records past the checkpoint; a torn last line from a crash mid-write is ignored
+    private void recover() throws IOException {
+        long checkpoint = checkpointRepository.findById(StockEngineCheckpoint.SINGLETON_ID)
+                .map(StockEngineCheckpoint::getWalSequence).orElse(0L);
+        List<WalRecord> records = new ArrayList<>();
+        long maxSequence = checkpoint;
+        if (Files.exists(walPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(walPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    WalRecord record = WalRecord.parse(line);
+                    if (record == null) {
+                        break;
+                    }
+                    maxSequence = Math.max(maxSequence, record.sequence);
+                    if (record.sequence > checkpoint) {
+                        records.add(record);
+                    }
+                }
+            }
+        }
+
+        if (!records.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> persist(records));
+            log.info("Stock engine recovered {} logged changes after sequence {}", records.size(), checkpoint);
+        }
+        lastSequence = maxSequence;
+        checkpointSequence = maxSequence;
+        lastWrittenSequence = maxSequence;
+        Files.deleteIfExists(walPath);
+    }
+
+    /**
+     * Bulk deletes bypass the engine, so after one the counters of products whose inventory row is gone are dropped;
+     * otherwise they would keep serving and accepting changes for stock that no longer exists. A later change for
+     * such a product finds no row to load and fails like any other unknown product.
+     */
+    public void dropCountersWithoutInventory() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> loaded = new ArrayList<>(counters.keySet());
+        for (int from = 0; from < loaded.size(); from += PRUNE_BATCH) {
+            List<Long> batch = loaded.subList(from, Math.min(from + PRUNE_BATCH, loaded.size()));
+            Set<Long> gone = new HashSet<>(batch);
+            gone.removeAll(inventoryRepository.findExistingProductIds(batch));
+            counters.keySet().removeAll(gone);
+        }
+    }
+
+    /**
+     * Compares every loaded counter with its database row. Under load a product can briefly show a difference
+     * of in-flight movements; a difference that persists across calls means memory and database diverged.
+     */
+    public List<EngineReconciliation> reconcile() {
+        List<EngineReconciliation> results = new ArrayList<>();
+        counters.forEach((productId, counter) -> {
+            int memory;
+            long unflushed;
+            synchronized (counter) {
+                memory = counter.quantity;
+                unflushed = counter.unflushed;
+            }
+            Integer database = inventoryRepository.findByProductId(productId).map(Inventory::getQuantity).orElse(null);
+            boolean consistent = database != null && memory == database + unflushed;
+            results.add(new EngineReconciliation(productId, memory, database, unflushed, consistent));
+        });
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        if (!enabled || !running) {
+            return;
+        }
+        running = false;
+        walWriter.join();
+        flush();
+        truncateIfCheckpointed();
+        walChannel.close();
+    }
+
+    private static Set<Long> parseProductIds(String productIds) {
+        Set<Long> ids = new HashSet<>();
+        for (String id : productIds.split(",")) {
+            if (!id.isBlank()) {
+                ids.add(Long.valueOf(id.trim()));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Published quantity of one product plus the changes admitted against it that the log has not taken yet. One
+     * monitor per product rather than striped cells: a removal must see the exact stock left after everything in
+     * flight to refuse an oversell, and every change is handed to the log under walLock anyway, so a contended SKU
+     * is serialized there whatever the counter does.
+     * <p>
+     * Removals in flight are held back from the stock available to the next one, additions in flight count against
+     * the headroom to {@link Integer#MAX_VALUE}. An adjustment replaces the quantity outright, so it waits until
+     * nothing else is in flight and holds off new changes until it is resolved; that keeps its delta exact.
+     */
+    private static class HotCounter {
+
+        private final Inventory template;
+        private int quantity;
+        // Sum of published deltas not yet committed to the inventory table
+        private long unflushed;
+        private long pendingIn;
+        private long pendingOut;
+        private boolean adjusting;
+        private int adjustmentsWaiting;
+
+        private HotCounter(Inventory inventory) {
+            this.template = inventory;
+            this.quantity = inventory.getQuantity();
+        }
+
+        private synchronized int quantity() {
+            return quantity;
+        }
+
+        private synchronized boolean admitAddition(int amount, long deadline) {
+            awaitNoAdjustment(deadline);
+            if ((long) quantity + pendingIn + amount > Integer.MAX_VALUE) {
+                return false;
+            }
+            pendingIn += amount;
+            return true;
+        }
+
+        private synchronized boolean admitRemoval(int amount, long deadline) {
+            awaitNoAdjustment(deadline);
+            if (quantity - pendingOut < amount) {
+                return false;
+            }
+            pendingOut += amount;
+            return true;
+        }
+
+        // Returns the delta that takes the quantity to the target
+        private synchronized int admitAdjustment(int target, long deadline) {
+            adjustmentsWaiting++;
+            try {
+                while (adjusting || pendingIn > 0 || pendingOut > 0) {
+                    awaitUntil(deadline);
+                }
+            } finally {
+                adjustmentsWaiting--;
+                notifyAll();
+            }
+            adjusting = true;
+            return target - quantity;
+        }
+
+        // Makes an admitted change visible and returns the quantity it left
+        private synchronized int publish(int delta, StockMovement.Reason reason) {
+            quantity += delta;
+            unflushed += delta;
+            release(delta, reason);
+            return quantity;
+        }
+
+        // Takes an admitted change out of escrow, published or not
+        private synchronized void release(int delta, StockMovement.Reason reason) {
+            switch (reason) {
+                case STOCK_IN -> pendingIn -= delta;
+                case STOCK_OUT -> pendingOut += delta;
+                default -> adjusting = false;
+            }
+            notifyAll();
+        }
+
+        private synchronized void flushed(long delta) {
+            unflushed -= delta;
+        }
+
+        private void awaitNoAdjustment(long deadline) {
+            while (adjusting || adjustmentsWaiting > 0) {
+                awaitUntil(deadline);
+            }
+        }
+
+        private void awaitUntil(long deadline) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new ServiceUnavailableException("Stock change could not start in time, an adjustment of the "
+                        + "same product is still in progress");
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting to change the stock");
+            }
+        }
+
+        private Inventory view(int currentQuantity) {
+            Inventory view = new Inventory(template.getId(), template.getProduct(), currentQuantity,
+                    template.getMinStockLevel(), LocalDateTime.now());
+            view.setLowStock(currentQuantity <= template.getMinStockLevel());
+            return view;
+        }
+    }
+
+    // The counter and future only exist for records of this run, not for those read back from the log
+    private record WalRecord(long sequence, Long productId, int delta, StockMovement.Reason reason,
+                             HotCounter counter, CompletableFuture<Integer> durable) {
+
+        private String toLine() {
+            return sequence + "," + productId + "," + delta + "," + reason + "\n";
+        }
+
+        private static WalRecord parse(String line) {
+            String[] parts = line.split(",");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                return new WalRecord(Long.parseLong(parts[0]), Long.valueOf(parts[1]), Integer.parseInt(parts[2]),
+                        StockMovement.Reason.valueOf(parts[3]), null, null);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.InventoryStreamEvent;
+import com.example.stockmanagement.event.InventoryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fans committed inventory changes out to Server-Sent Events subscribers. Publishing only enqueues into each
+ * subscriber's bounded buffer; the actual writes happen on a small dedicated pool, so a slow client never
+ * holds up the transaction that produced the change.
+ */
+@Service
+public class InventoryEventBroadcaster {
+
+    public enum OverflowPolicy {
+        // Drop the oldest buffered event and tell the client it missed some
+        DROP_OLDEST,
+        // Keep only the latest buffered state per product
+        COALESCE
+    }
+
+    private final int bufferSize;
+    private final int historySize;
+    private final long emitterTimeoutMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final Executor sendExecutor;
+
+    // Guards the sequence, the replay history and the subscriber set, so replay and live delivery never overlap
+    private final Object lock = new Object();
+    private final Deque<InventoryStreamEvent> history = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long sequence;
+
+    public InventoryEventBroadcaster(
+            @Value("${stock.events.buffer-size:256}") int bufferSize,
+            @Value("${stock.events.history-size:1024}") int historySize,
+            @Value("${stock.events.emitter-timeout:30m}") Duration emitterTimeout,
+            @Value("${stock.events.overflow-policy:COALESCE}") OverflowPolicy overflowPolicy,
+            @Value("${stock.events.sender-threads:2}") int senderThreads,
+            Environment environment) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.overflowPolicy = overflowPolicy;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // A virtual thread per drain, so one slow client no longer holds up a sender shared with others
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("inventory-events-");
+            executor.setVirtualThreads(true);
+            this.sendExecutor = executor;
+        } else {
+            this.sendExecutor = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("inventory-events-"));
+        }
+    }
+
+    /**
+     * Registers a new subscriber. When the client reconnects with a Last-Event-ID still covered by the history,
+     * the events it missed are replayed first; if it is too old the client receives a {@code reset} event and
+     * should reload its data.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null) {
+                InventoryStreamEvent oldest = history.peekFirst();
+                // An id ahead of the sequence comes from before a restart
+                boolean unknown = lastEventId > sequence;
+                boolean evicted = lastEventId < sequence && (oldest == null || oldest.id() > lastEventId + 1);
+                if (unknown || evicted) {
+                    subscriber.offerReset();
+                } else {
+                    for (InventoryStreamEvent event : history) {
+                        if (event.id() > lastEventId) {
+                            subscriber.offer(event);
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent change) {
+        synchronized (lock) {
+            InventoryStreamEvent event = InventoryStreamEvent.of(++sequence, change);
+            history.addLast(event);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    // Keeps idle connections alive through proxies and detects clients that went away
+    @Scheduled(fixedDelayString = "${stock.events.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerHeartbeat();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        if (sendExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        } else if (sendExecutor instanceof SimpleAsyncTaskExecutor executor) {
+            executor.close();
+        }
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        // Keyed by product for COALESCE and by event id for DROP_OLDEST
+        private final LinkedHashMap<Object, InventoryStreamEvent> pending = new LinkedHashMap<>();
+        private long dropped;
+        private boolean reset;
+        private boolean heartbeat;
+        private boolean scheduled;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(InventoryStreamEvent event) {
+            boolean schedule;
+            synchronized (this) {
+                if (overflowPolicy == OverflowPolicy.COALESCE) {
+                    InventoryStreamEvent previous = pending.remove(event.productId());
+                    pending.put(event.productId(), previous != null ? previous.coalesce(event) : event);
+                } else {
+                    pending.put(event.id(), event);
+                }
+                if (pending.size() > bufferSize) {
+                    Iterator<Map.Entry<Object, InventoryStreamEvent>> oldest = pending.entrySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    dropped++;
+                }
+                schedule = markScheduled();
+            }
+            if (schedule) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void offerReset() {
+            boolean schedule;
+            synchronized (this) {
+                reset = true;
+                schedule = markScheduled();
+            }
+            if (schedule) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void offerHeartbeat() {
+            boolean schedule;
+            synchronized (this) {
+                heartbeat = true;
+                schedule = markScheduled();
+            }
+            if (schedule) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private boolean markScheduled() {
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<InventoryStreamEvent> batch;
+                    long droppedSinceLastSend;
+                    boolean sendReset;
+                    boolean sendHeartbeat;
+                    synchronized (this) {
+                        if (pending.isEmpty() && !reset && !heartbeat && dropped == 0) {
+                            scheduled = false;
+                            return;
+                        }
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                        droppedSinceLastSend = dropped;
+                        sendReset = reset;
+                        sendHeartbeat = heartbeat;
+                        dropped = 0;
+                        reset = false;
+                        heartbeat = false;
+                    }
+
+                    if (sendReset) {
+                        emitter.send(SseEmitter.event().name("reset").data("History no longer available, reload"));
+                    }
+                    if (droppedSinceLastSend > 0) {
+                        emitter.send(SseEmitter.event().name("overflow").data(droppedSinceLastSend));
+                    }
+                    for (InventoryStreamEvent event : batch) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.id()))
+                                .name(event.eventName())
+                                .data(event));
+                    }
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; stop buffering for it
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.event.InventoryChangedEvent;
+import com.example.stockmanagement.event.InventoryChangedEvent.ChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Business counters for the stock paths. Stock-outs and low-stock crossings are taken from the committed change
+ * events; rejections are reported by the write paths that refuse a removal, tagged with which path it was.
+ */
+@Component
+public class InventoryMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter stockOuts;
+    private final Counter lowStockCrossings;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public InventoryMetrics(MeterRegistry meterRegistry, OptimisticLockRetry optimisticLockRetry) {
+        this.meterRegistry = meterRegistry;
+        this.stockOuts = Counter.builder("stock.outs")
+                .description("Stock changes that left a product with no stock")
+                .register(meterRegistry);
+        this.lowStockCrossings = Counter.builder("stock.low_stock.crossings")
+                .description("Stock changes that took a product from above its minimum level to at or below it")
+                .register(meterRegistry);
+
+        // Summed over all products; per-product numbers stay on /api/inventory/contention
+        contentionCounter("conflicts", optimisticLockRetry, OptimisticLockRetry.Counters::getConflicts);
+        contentionCounter("retries", optimisticLockRetry, OptimisticLockRetry.Counters::getRetries);
+        contentionCounter("exhausted", optimisticLockRetry, OptimisticLockRetry.Counters::getExhausted);
+        contentionCounter("precondition_failures", optimisticLockRetry,
+                OptimisticLockRetry.Counters::getPreconditionFailures);
+    }
+
+    // path: direct, batch, coalesced, engine or reservation
+    public void recordRejection(String path) {
+        rejections.computeIfAbsent(path, key -> Counter.builder("stock.rejections")
+                .description("Removals and reservations refused for not enough stock")
+                .tag("path", key)
+                .register(meterRegistry)).increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.changeType() != ChangeType.UPDATED) {
+            return;
+        }
+        if (event.quantity() == 0) {
+            stockOuts.increment();
+        }
+        if (event.lowStock() && !event.previousLowStock()) {
+            lowStockCrossings.increment();
+        }
+    }
+
+    private void contentionCounter(String name, OptimisticLockRetry optimisticLockRetry,
+                                   ToLongFunction<OptimisticLockRetry.Counters> counter) {
+        FunctionCounter.builder("stock.optimistic_lock." + name, optimisticLockRetry,
+                        retry -> retry.getCounters().values().stream().mapToLong(counter).sum())
+                .description("Optimistic locking " + name.replace('_', ' ') + " on inventory and product writes")
+                .register(meterRegistry);
+    }
+}
@@ -1,47 +1,136 @@
 package com.example.stockmanagement.service;
 
+import com.example.stockmanagement.dto.BatchMode;
+import com.example.stockmanagement.dto.BatchMovementResult;
+import com.example.stockmanagement.dto.ContentionStatistics;
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.InventoryRow;
+import com.example.stockmanagement.dto.KeysetCursor;
+import com.example.stockmanagement.dto.MovementLineResult;
+import com.example.stockmanagement.dto.StockLevel;
+import com.example.stockmanagement.dto.StockMovementRequest;
+import com.example.stockmanagement.event.InventoryChangedEvent;
+import com.example.stockmanagement.event.InventoryChangedEvent.ChangeType;
+import com.example.stockmanagement.exception.PreconditionFailedException;
 import com.example.stockmanagement.model.Inventory;
 import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.model.StockMovement;
+import com.example.stockmanagement.model.SyncTombstone.EntityType;
 import com.example.stockmanagement.repository.InventoryRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class InventoryService {
 
+    static final String MUTATION_TIMER = "stock.inventory.mutations";
+
     private final InventoryRepository inventoryRepository;
     private final ProductService productService;
+    private final StockLedgerService stockLedgerService;
+    private final StockCoalescer stockCoalescer;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final SyncService syncService;
+    private final InMemoryStockEngine inMemoryStockEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryMetrics inventoryMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxBatchSize;
 
     @Autowired
-    public InventoryService(InventoryRepository inventoryRepository, ProductService productService) {
+    public InventoryService(InventoryRepository inventoryRepository, ProductService productService,
+                            StockLedgerService stockLedgerService, StockCoalescer stockCoalescer,
+                            InMemoryStockEngine inMemoryStockEngine, OptimisticLockRetry optimisticLockRetry,
+                            SyncService syncService, InventoryMetrics inventoryMetrics,
+                            ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                            @Value("${stock.movements.max-batch-size:10000}") int maxBatchSize) {
         this.inventoryRepository = inventoryRepository;
         this.productService = productService;
+        this.stockLedgerService = stockLedgerService;
+        this.stockCoalescer = stockCoalescer;
+        this.inMemoryStockEngine = inMemoryStockEngine;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.syncService = syncService;
+        this.eventPublisher = eventPublisher;
+        this.inventoryMetrics = inventoryMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
     }
 
-    public List<Inventory> getAllInventory() {
-        return inventoryRepository.findAll();
+    // Read-only transactions run with FlushMode.MANUAL, so Hibernate never flushes or dirty-checks on the way out
+    @Transactional(readOnly = true)
+    public List<InventoryRow> getAllInventory() {
+        return inventoryRepository.findAllRows();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<InventoryRow> getInventoryPage(Integer limit, String after, String sort) {
+        String sortField = sort != null ? sort : "id";
+        Pageable pageable = PageRequest.ofSize(KeysetCursor.resolveLimit(limit));
+        KeysetCursor cursor = after != null ? KeysetCursor.decode(after, sortField) : null;
+
+        Slice<InventoryRow> slice;
+        switch (sortField) {
+            case "id" -> slice = inventoryRepository.findPageOrderById(cursor != null ? cursor.id() : 0L, pageable);
+            case "quantity" -> slice = inventoryRepository.findPageOrderByQuantity(
+                    cursor != null ? Integer.parseInt(cursor.value()) : -1, cursor != null ? cursor.id() : 0L, pageable);
+            default -> throw new IllegalArgumentException("Unsupported sort field for inventory: " + sortField);
+        }
+
+        String next = null;
+        if (slice.hasNext()) {
+            InventoryRow last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            next = new KeysetCursor(sortField, last.id(),
+                    "quantity".equals(sortField) ? String.valueOf(last.quantity()) : null).encode();
+        }
+        return new CursorPage<>(slice.getContent(), next);
     }
 
     public Inventory getInventoryById(Long id) {
-        return inventoryRepository.findById(id)
+        Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Inventory not found with id: " + id));
+        if (inMemoryStockEngine.manages(inventory.getProduct().getId())) {
+            return inMemoryStockEngine.getInventory(inventory.getProduct().getId());
+        }
+        return inventory;
     }
 
     public Inventory getInventoryByProductId(Long productId) {
+        if (inMemoryStockEngine.manages(productId)) {
+            return inMemoryStockEngine.getInventory(productId);
+        }
         Product product = productService.getProductById(productId);
         return inventoryRepository.findByProduct(product)
                 .orElseThrow(() -> new EntityNotFoundException("Inventory not found for product id: " + productId));
     }
 
-    public List<Inventory> getLowStockItems() {
+    @Transactional(readOnly = true)
+    public List<InventoryRow> getLowStockItems() {
         return inventoryRepository.findLowStockItems();
     }
 
     @Transactional
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "create"}, histogram = true)
     public Inventory createInventory(Inventory inventory) {
         if (inventory.getProduct() != null && inventory.getProduct().getId() != null) {
             Product product = productService.getProductById(inventory.getProduct().getId());
@@ -52,63 +141,266 @@ public class InventoryService {
                 throw new IllegalStateException("Inventory already exists for product: " + product.getName());
             });
         }
-        return inventoryRepository.save(inventory);
+        Inventory savedInventory = inventoryRepository.save(inventory);
+        stockLedgerService.recordOpeningBalances(List.of(savedInventory));
+        eventPublisher.publishEvent(InventoryChangedEvent.of(ChangeType.CREATED, savedInventory, false));
+        return savedInventory;
     }
 
-    @Transactional
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "update"}, histogram = true)
     public Inventory updateInventory(Long id, Inventory inventoryDetails) {
-        Inventory inventory = getInventoryById(id);
+        return updateInventory(id, inventoryDetails, null);
+    }
+
+    /**
+     * With an expected version (from If-Match) the update only applies to that version and fails with
+     * PreconditionFailedException otherwise. Without one, losing an optimistic lock race is retried.
+     */
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "update"}, histogram = true)
+    public Inventory updateInventory(Long id, Inventory inventoryDetails, Long expectedVersion) {
+        Long productId = getInventoryById(id).getProduct().getId();
+        inMemoryStockEngine.checkNotManaged(productId);
+        if (expectedVersion == null) {
+            return optimisticLockRetry.execute(productId,
+                    status -> applyInventoryUpdate(id, productId, inventoryDetails, null));
+        }
+        try {
+            return optimisticLockRetry.executeOnce(productId,
+                    status -> applyInventoryUpdate(id, productId, inventoryDetails, expectedVersion));
+        } catch (OptimisticLockingFailureException e) {
+            optimisticLockRetry.recordPreconditionFailure(productId);
+            throw new PreconditionFailedException("Inventory " + id + " was modified concurrently");
+        }
+    }
+
+    private Inventory applyInventoryUpdate(Long id, Long productId, Inventory inventoryDetails, Long expectedVersion) {
+        Inventory inventory = inventoryRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Inventory not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(inventory.getVersion())) {
+            optimisticLockRetry.recordPreconditionFailure(productId);
+            throw new PreconditionFailedException("Inventory " + id + " is at version " + inventory.getVersion()
+                    + ", not " + expectedVersion);
+        }
+        boolean wasLowStock = inventory.isLowStock();
+        int previousQuantity = inventory.getQuantity();
         
+        checkNotBelowReserved(inventory, inventoryDetails.getQuantity());
         inventory.setQuantity(inventoryDetails.getQuantity());
         inventory.setMinStockLevel(inventoryDetails.getMinStockLevel());
         
-        return inventoryRepository.save(inventory);
+        Inventory savedInventory = inventoryRepository.saveAndFlush(inventory);
+        stockLedgerService.record(productId, inventory.getQuantity() - previousQuantity, StockMovement.Reason.ADJUSTMENT);
+        eventPublisher.publishEvent(InventoryChangedEvent.of(ChangeType.UPDATED, savedInventory, wasLowStock));
+        return savedInventory;
     }
 
-    @Transactional
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "set-stock"}, histogram = true)
     public Inventory updateStock(Long productId, int quantity) {
+        if (inMemoryStockEngine.manages(productId)) {
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Quantity cannot be negative");
+            }
+            return inMemoryStockEngine.setStock(productId, quantity);
+        }
         Product product = productService.getProductById(productId);
-        Inventory inventory = inventoryRepository.findByProduct(product)
-                .orElseThrow(() -> new EntityNotFoundException("Inventory not found for product id: " + productId));
-        
-        inventory.setQuantity(quantity);
-        return inventoryRepository.save(inventory);
+        return optimisticLockRetry.execute(productId, status -> {
+            Inventory inventory = inventoryRepository.findByProduct(product)
+                    .orElseThrow(() -> new EntityNotFoundException("Inventory not found for product id: " + productId));
+            boolean wasLowStock = inventory.isLowStock();
+            int previousQuantity = inventory.getQuantity();
+
+            checkNotBelowReserved(inventory, quantity);
+            inventory.setQuantity(quantity);
+            Inventory savedInventory = inventoryRepository.saveAndFlush(inventory);
+            stockLedgerService.record(productId, quantity - previousQuantity, StockMovement.Reason.ADJUSTMENT);
+            eventPublisher.publishEvent(InventoryChangedEvent.of(ChangeType.UPDATED, savedInventory, wasLowStock));
+            return savedInventory;
+        });
     }
 
-    @Transactional
+    public List<ContentionStatistics> getContentionStatistics() {
+        List<ContentionStatistics> statistics = new ArrayList<>();
+        optimisticLockRetry.getCounters().forEach((productId, counters) -> {
+            String sku;
+            try {
+                sku = productService.getProductById(productId).getSku();
+            } catch (EntityNotFoundException e) {
+                sku = null;
+            }
+            statistics.add(new ContentionStatistics(productId, sku, counters.getConflicts(), counters.getRetries(),
+                    counters.getExhausted(), counters.getPreconditionFailures()));
+        });
+        statistics.sort(Comparator.comparingLong(ContentionStatistics::conflicts).reversed());
+        return statistics;
+    }
+
+    // Not transactional itself: with coalescing on, callers wait for a shared flush and must not hold a connection
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "add-stock"}, histogram = true)
     public Inventory addStock(Long productId, int quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity to add must be positive");
         }
-        
-        Product product = productService.getProductById(productId);
-        Inventory inventory = inventoryRepository.findByProduct(product)
-                .orElseThrow(() -> new EntityNotFoundException("Inventory not found for product id: " + productId));
-        
-        inventory.setQuantity(inventory.getQuantity() + quantity);
-        return inventoryRepository.save(inventory);
+        if (inMemoryStockEngine.manages(productId)) {
+            return inMemoryStockEngine.addStock(productId, quantity);
+        }
+        if (stockCoalescer.isEnabled()) {
+            return stockCoalescer.submit(productId, quantity);
+        }
+
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (inventoryRepository.incrementQuantity(productId, quantity, now) == 0) {
+                throw new EntityNotFoundException("Inventory not found for product id: " + productId);
+            }
+            StockLevel level = inventoryRepository.findStockLevelByProductId(productId).orElseThrow();
+            stockLedgerService.record(productId, quantity, StockMovement.Reason.STOCK_IN);
+            return updatedInventory(productId, level, quantity, now);
+        });
     }
 
-    @Transactional
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "remove-stock"}, histogram = true)
     public Inventory removeStock(Long productId, int quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity to remove must be positive");
         }
-        
-        Product product = productService.getProductById(productId);
-        Inventory inventory = inventoryRepository.findByProduct(product)
-                .orElseThrow(() -> new EntityNotFoundException("Inventory not found for product id: " + productId));
-        
-        if (inventory.getQuantity() < quantity) {
-            throw new IllegalStateException("Not enough stock available");
+        if (inMemoryStockEngine.manages(productId)) {
+            return inMemoryStockEngine.removeStock(productId, quantity);
+        }
+        if (stockCoalescer.isEnabled()) {
+            return stockCoalescer.submit(productId, -quantity);
+        }
+
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (inventoryRepository.decrementQuantityIfAvailable(productId, quantity, now) == 0) {
+                // The guarded update matched nothing: either there is no inventory row or not enough stock
+                if (!inventoryRepository.existsByProductId(productId)) {
+                    throw new EntityNotFoundException("Inventory not found for product id: " + productId);
+                }
+                inventoryMetrics.recordRejection("direct");
+                throw new IllegalStateException("Not enough stock available");
+            }
+            StockLevel level = inventoryRepository.findStockLevelByProductId(productId).orElseThrow();
+            stockLedgerService.record(productId, -quantity, StockMovement.Reason.STOCK_OUT);
+            return updatedInventory(productId, level, -quantity, now);
+        });
+    }
+
+    private void checkNotBelowReserved(Inventory inventory, int quantity) {
+        if (quantity < inventory.getReserved()) {
+            throw new IllegalStateException("Quantity cannot be lower than the reserved stock of " + inventory.getReserved());
         }
-        
-        inventory.setQuantity(inventory.getQuantity() - quantity);
-        return inventoryRepository.save(inventory);
     }
 
+    // Built from the update's own result; the product comes from the lookup cache instead of a join on every movement
+    private Inventory updatedInventory(Long productId, StockLevel level, int delta, LocalDateTime now) {
+        Inventory inventory = new Inventory(level.getId(), productService.getProductById(productId),
+                level.getQuantity(), level.getMinStockLevel(), now);
+        inventory.setReserved(level.getReserved());
+        inventory.setVersion(level.getVersion());
+        inventory.setLowStock(level.getQuantity() <= level.getMinStockLevel());
+        boolean wasLowStock = level.getQuantity() - delta <= level.getMinStockLevel();
+        eventPublisher.publishEvent(InventoryChangedEvent.of(ChangeType.UPDATED, inventory, wasLowStock));
+        return inventory;
+    }
+
+    @Transactional
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "batch"}, histogram = true)
+    public BatchMovementResult applyMovements(List<StockMovementRequest> movements, BatchMode mode) {
+        if (movements == null || movements.isEmpty()) {
+            throw new IllegalArgumentException("At least one movement is required");
+        }
+        if (movements.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxBatchSize + " movements");
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        for (StockMovementRequest movement : movements) {
+            if (movement != null && movement.productId() != null) {
+                inMemoryStockEngine.checkNotManaged(movement.productId());
+                productIds.add(movement.productId());
+            }
+        }
+
+        Map<Long, Inventory> inventoryByProduct = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findAllByProductIdInForUpdate(productIds)) {
+            inventoryByProduct.put(inventory.getProduct().getId(), inventory);
+        }
+
+        // Lines are evaluated in request order against running quantities, nothing is written yet
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<MovementLineResult> results = new ArrayList<>(movements.size());
+        int rejectedCount = 0;
+        for (int index = 0; index < movements.size(); index++) {
+            StockMovementRequest movement = movements.get(index);
+            Long productId = movement != null ? movement.productId() : null;
+            Integer delta = movement != null ? movement.delta() : null;
+
+            String error = null;
+            Integer newQuantity = null;
+            if (productId == null || delta == null || delta == 0) {
+                error = "Movement requires a productId and a non-zero delta";
+            } else if (!inventoryByProduct.containsKey(productId)) {
+                error = "Inventory not found for product id: " + productId;
+            } else {
+                int current = quantities.getOrDefault(productId, inventoryByProduct.get(productId).getQuantity());
+                if (current + (long) delta < inventoryByProduct.get(productId).getReserved()) {
+                    error = "Not enough stock available";
+                    inventoryMetrics.recordRejection("batch");
+                } else if (current + (long) delta > Integer.MAX_VALUE) {
+                    // Checked in long, as int arithmetic would wrap to a negative stock level and be written
+                    error = "Quantity would exceed the maximum stock level of " + Integer.MAX_VALUE;
+                } else {
+                    newQuantity = current + delta;
+                    quantities.put(productId, newQuantity);
+                }
+            }
+
+            if (error != null) {
+                rejectedCount++;
+                results.add(new MovementLineResult(index, productId, delta, MovementLineResult.Status.REJECTED, null, error));
+            } else {
+                results.add(new MovementLineResult(index, productId, delta, MovementLineResult.Status.APPLIED, newQuantity, null));
+            }
+        }
+
+        if (mode == BatchMode.ALL_OR_NOTHING && rejectedCount > 0) {
+            List<MovementLineResult> skipped = new ArrayList<>(results.size());
+            for (MovementLineResult result : results) {
+                skipped.add(result.status() == MovementLineResult.Status.APPLIED
+                        ? new MovementLineResult(result.index(), result.productId(), result.delta(),
+                                MovementLineResult.Status.SKIPPED, null, "Batch was not applied")
+                        : result);
+            }
+            return new BatchMovementResult(mode, false, 0, rejectedCount, skipped);
+        }
+
+        // Dirty rows are flushed together on commit as batched, ordered updates, the ledger lines as batched inserts
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> ledgerEntries = new ArrayList<>(results.size() - rejectedCount);
+        for (MovementLineResult result : results) {
+            if (result.status() == MovementLineResult.Status.APPLIED) {
+                ledgerEntries.add(new StockMovement(result.productId(), result.delta(), StockMovement.Reason.BATCH, now));
+            }
+        }
+        stockLedgerService.recordAll(ledgerEntries);
+        quantities.forEach((productId, quantity) -> {
+            Inventory inventory = inventoryByProduct.get(productId);
+            boolean wasLowStock = inventory.isLowStock();
+            inventory.setQuantity(quantity);
+            eventPublisher.publishEvent(InventoryChangedEvent.of(ChangeType.UPDATED, inventory, wasLowStock));
+        });
+        return new BatchMovementResult(mode, true, results.size() - rejectedCount, rejectedCount, results);
+    }
+
+    @Transactional
+    @Timed(value = MUTATION_TIMER, extraTags = {"operation", "delete"}, histogram = true)
     public void deleteInventory(Long id) {
         Inventory inventory = getInventoryById(id);
+        inMemoryStockEngine.checkNotManaged(inventory.getProduct().getId());
         inventoryRepository.delete(inventory);
+        stockLedgerService.record(inventory.getProduct().getId(), -inventory.getQuantity(), StockMovement.Reason.CLOSING);
+        syncService.recordDeletion(EntityType.INVENTORY, id);
+        eventPublisher.publishEvent(InventoryChangedEvent.of(ChangeType.DELETED, inventory, inventory.isLowStock()));
     }
 }
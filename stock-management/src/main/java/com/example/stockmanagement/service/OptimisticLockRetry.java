@@ -0,0 +1,112 @@
+package com.example.stockmanagement.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a read-modify-write in its own transaction and, when it loses an optimistic lock race, runs it again in a
+ * fresh one after a jittered exponential backoff. Conflicts are counted per product so hot SKUs show up.
+ */
+@Service
+public class OptimisticLockRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final Map<Long, Counters> countersByProduct = new ConcurrentHashMap<>();
+
+    public OptimisticLockRetry(TransactionTemplate transactionTemplate,
+                               @Value("${stock.retry.max-attempts:4}") int maxAttempts,
+                               @Value("${stock.retry.initial-backoff:5ms}") Duration initialBackoff,
+                               @Value("${stock.retry.max-backoff:100ms}") Duration maxBackoff) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    public <T> T execute(Long productId, TransactionCallback<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (OptimisticLockingFailureException e) {
+                Counters counters = counters(productId);
+                counters.conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    counters.exhausted.incrementAndGet();
+                    throw e;
+                }
+                counters.retries.incrementAndGet();
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Conditional updates are not retried: the client asked for a specific version and has to re-read
+    public <T> T executeOnce(Long productId, TransactionCallback<T> action) {
+        try {
+            return transactionTemplate.execute(action);
+        } catch (OptimisticLockingFailureException e) {
+            counters(productId).conflicts.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public void recordPreconditionFailure(Long productId) {
+        counters(productId).preconditionFailures.incrementAndGet();
+    }
+
+    public Map<Long, Counters> getCounters() {
+        return countersByProduct;
+    }
+
+    private Counters counters(Long productId) {
+        return countersByProduct.computeIfAbsent(productId, id -> new Counters());
+    }
+
+    // Full jitter: a random wait up to an exponentially growing cap, so colliding writers spread out
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    public static class Counters {
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong exhausted = new AtomicLong();
+        private final AtomicLong preconditionFailures = new AtomicLong();
+
+        public long getConflicts() {
+            return conflicts.get();
+        }
+
+        public long getRetries() {
+            return retries.get();
+        }
+
+        public long getExhausted() {
+            return exhausted.get();
+        }
+
+        public long getPreconditionFailures() {
+            return preconditionFailures.get();
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.ProductSearchHit;
+import com.example.stockmanagement.dto.ProductSearchPage;
+import com.example.stockmanagement.dto.ProductSummary;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product SKU, name and description. Every query word matches as a prefix, all
+ * words must match, and hits are ranked by field (SKU over name over description), by how much of the matched
+ * term the word covers, and by how rare the term is.
+ * <p>
+ * Products get dense document numbers in insertion order, so posting lists stay sorted by only ever appending.
+ * An update is a delete plus an add; deleted documents are skipped until enough pile up to compact them away.
+ * <p>
+ * Scoring needs arrays sized to the whole catalog. They come from a small pool with one set per processor
+ * rather than one per thread, so hundreds of request threads (or a fresh virtual thread per request) do not
+ * each hold or allocate their own; a search waits while every set is in use.
+ */
+@Component
+public class ProductSearchIndex {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final int SKU = 1;
+    private static final int NAME = 2;
+    private static final int DESCRIPTION = 4;
+    private static final int MAX_QUERY_TERMS = 8;
+    // A lone single letter matches only itself; as a prefix it would hit a large share of the catalog
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // Type-ahead on one or two letters would otherwise walk a large part of the dictionary
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float[] FIELD_WEIGHTS = new float[8];
+
+    static {
+        for (int fields = 0; fields < FIELD_WEIGHTS.length; fields++) {
+            FIELD_WEIGHTS[fields] = ((fields & SKU) != 0 ? 4 : 0) + ((fields & NAME) != 0 ? 2 : 0)
+                    + ((fields & DESCRIPTION) != 0 ? 1 : 0);
+        }
+    }
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<Long, Integer> documentByProduct = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    // Changes committed while a rebuild reads the catalog; they are replayed onto the fresh snapshot
+    private List<Runnable> changesDuringRebuild;
+
+    private final BlockingQueue<Scratch> scratchPool;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+        int scratchCount = Runtime.getRuntime().availableProcessors();
+        this.scratchPool = new ArrayBlockingQueue<>(scratchCount);
+        for (int i = 0; i < scratchCount; i++) {
+            scratchPool.add(new Scratch());
+        }
+    }
+
+    /**
+     * The catalog is read without holding the index lock, so searches keep running meanwhile. Index changes that
+     * commit during the read are applied as usual and replayed afterwards; every change sets a product to a given
+     * state, so replaying one the snapshot already contains does no harm.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<ProductSummary> products;
+        try {
+            products = productRepository.findAllSummaries();
+        } catch (RuntimeException e) {
+            // The current index stays as it is; its changes were applied all along
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentByProduct.clear();
+            deleted.clear();
+            for (ProductSummary product : products) {
+                add(new Document(product.id(), product.sku(), product.name(), product.price(), product.categoryId()),
+                        terms(product.sku(), product.name(), product.description()));
+            }
+            changesDuringRebuild.forEach(Runnable::run);
+            compactIfNeeded();
+        } finally {
+            changesDuringRebuild = null;
+            lock.writeLock().unlock();
+        }
+        System.out.println("Product search index built: " + products.size() + " products, " + postings.size()
+                + " terms in " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    // Changes made inside a transaction reach the index only once it commits
+    public void index(Product product) {
+        index(List.of(product));
+    }
+
+    public void index(Collection<Product> products) {
+        List<Document> added = new ArrayList<>(products.size());
+        List<Map<String, Integer>> addedTerms = new ArrayList<>(products.size());
+        for (Product product : products) {
+            added.add(new Document(product.getId(), product.getSku(), product.getName(), product.getPrice(),
+                    product.getCategory() != null ? product.getCategory().getId() : null));
+            addedTerms.add(terms(product.getSku(), product.getName(), product.getDescription()));
+        }
+        afterCommit(() -> change(() -> {
+            for (int i = 0; i < added.size(); i++) {
+                delete(added.get(i).productId());
+                add(added.get(i), addedTerms.get(i));
+            }
+        }));
+    }
+
+    public void remove(Long productId) {
+        afterCommit(() -> change(() -> delete(productId)));
+    }
+
+    public void rebuildAfterCommit() {
+        afterCommit(this::rebuild);
+    }
+
+    public ProductSearchPage search(String query, int offset, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return new ProductSearchPage(query, 0, offset, List.of());
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+
+        // Taken before the read lock so a search waiting for scratch space does not hold up index changes
+        Scratch state = borrowScratch();
+        try {
+            lock.readLock().lock();
+            try {
+                return search(query, terms, offset, limit, state);
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            scratchPool.add(state);
+        }
+    }
+
+    private ProductSearchPage search(String query, List<String> terms, int offset, int limit, Scratch state) {
+        // Each query term matches every indexed term it is a prefix of
+        List<List<Map.Entry<String, Postings>>> expansions = new ArrayList<>(terms.size());
+        long[] sizes = new long[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            String term = terms.get(t);
+            List<Map.Entry<String, Postings>> matches = new ArrayList<>();
+            boolean exact = term.length() < MIN_PREFIX_LENGTH && terms.size() == 1;
+            String end = exact ? term : term + Character.MAX_VALUE;
+            for (Map.Entry<String, Postings> entry : postings.subMap(term, true, end, exact).entrySet()) {
+                matches.add(entry);
+                sizes[t] += entry.getValue().size;
+                if (matches.size() == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+            if (matches.isEmpty()) {
+                return new ProductSearchPage(query, 0, offset, List.of());
+            }
+            expansions.add(matches);
+        }
+        // Start with the rarest term so the candidate set is as small as possible from the beginning
+        Integer[] order = new Integer[terms.size()];
+        for (int t = 0; t < order.length; t++) {
+            order[t] = t;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(sizes[a], sizes[b]));
+
+        state.ensureCapacity(documents.size());
+        byte[] matched = state.matched;
+        float[] scores = state.scores;
+        // Candidates are the documents matching the first term; later terms only narrow them down
+        int[] candidates = new int[(int) Math.min(sizes[order[0]], documents.size())];
+        int candidateCount = 0;
+        try {
+            double live = Math.max(1, documentByProduct.size());
+            for (int k = 0; k < order.length; k++) {
+                String term = terms.get(order[k]);
+                for (Map.Entry<String, Postings> entry : expansions.get(order[k])) {
+                    Postings list = entry.getValue();
+                    float weight = (float) term.length() / entry.getKey().length()
+                            * (float) Math.log(1 + live / list.size);
+                    if (k > 0 && candidateCount * 16L < list.size) {
+                        // Few candidates left: look each one up instead of scanning the whole list
+                        for (int c = 0; c < candidateCount; c++) {
+                            int document = candidates[c];
+                            if (matched[document] == k || matched[document] == k + 1) {
+                                int i = Arrays.binarySearch(list.documents, 0, list.size, document);
+                                if (i >= 0) {
+                                    matched[document] = (byte) (k + 1);
+                                    scores[document] += FIELD_WEIGHTS[list.fields[i]] * weight;
+                                }
+                            }
+                        }
+                        continue;
+                    }
+                    for (int i = 0; i < list.size; i++) {
+                        int document = list.documents[i];
+                        if (matched[document] == k) {
+                            matched[document] = (byte) (k + 1);
+                            if (k == 0) {
+                                candidates[candidateCount++] = document;
+                            }
+                        } else if (matched[document] != k + 1) {
+                            continue;
+                        }
+                        scores[document] += FIELD_WEIGHTS[list.fields[i]] * weight;
+                    }
+                }
+            }
+            return collect(query, candidates, candidateCount, order.length, offset, limit, matched, scores);
+        } finally {
+            // Only candidates were ever touched, so resetting them leaves the scratch clean
+            for (int i = 0; i < candidateCount; i++) {
+                matched[candidates[i]] = 0;
+                scores[candidates[i]] = 0;
+            }
+        }
+    }
+
+    private ProductSearchPage collect(String query, int[] candidates, int candidateCount, int termCount,
+                                      int offset, int limit, byte[] matched, float[] scores) {
+        // Min-heap on rank holding the best hits so far; candidates arrive in document order, so on equal
+        // scores the older product is already in the heap and stays ahead
+        int[] heap = new int[offset + limit];
+        int heapSize = 0;
+        int total = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int document = candidates[i];
+            if (matched[document] != termCount || deleted.get(document)) {
+                continue;
+            }
+            total++;
+            if (heapSize < heap.length) {
+                heap[heapSize] = document;
+                siftUp(heap, heapSize++, scores);
+            } else if (scores[document] > scores[heap[0]]) {
+                heap[0] = document;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+        int[] ranked = new int[heapSize];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        List<ProductSearchHit> hits = new ArrayList<>(Math.max(0, ranked.length - offset));
+        for (int i = offset; i < ranked.length; i++) {
+            Document document = documents.get(ranked[i]);
+            hits.add(new ProductSearchHit(document.productId(), document.sku(), document.name(), document.price(),
+                    document.categoryId(), scores[ranked[i]]));
+        }
+        return new ProductSearchPage(query, total, offset, hits);
+    }
+
+    // Lower score ranks lower; among equal scores the newer document ranks lower
+    private static boolean ranksBelow(int a, int b, float[] scores) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int index, float[] scores) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksBelow(heap[index], heap[parent], scores)) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int index = 0;
+        while (true) {
+            int lowest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && ranksBelow(heap[left], heap[lowest], scores)) {
+                lowest = left;
+            }
+            if (right < size && ranksBelow(heap[right], heap[lowest], scores)) {
+                lowest = right;
+            }
+            if (lowest == index) {
+                return;
+            }
+            swap(heap, index, lowest);
+            index = lowest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int swapped = heap[a];
+        heap[a] = heap[b];
+        heap[b] = swapped;
+    }
+
+    private Scratch borrowScratch() {
+        try {
+            return scratchPool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to search", e);
+        }
+    }
+
+    // Applies an index change; updates leave deleted documents behind just like removals, so both may compact
+    private void change(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Document document, Map<String, Integer> terms) {
+        int number = documents.size();
+        documents.add(document);
+        documentByProduct.put(document.productId(), number);
+        terms.forEach((term, fields) ->
+                postings.computeIfAbsent(term, key -> new Postings()).add(number, fields.byteValue()));
+    }
+
+    private void delete(Long productId) {
+        Integer number = documentByProduct.remove(productId);
+        if (number != null) {
+            deleted.set(number);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deleted.cardinality() > documentByProduct.size() / 4 + 1000) {
+            compact();
+        }
+    }
+
+    // Drops deleted documents and renumbers the rest; order is preserved, so posting lists stay sorted
+    private void compact() {
+        int[] renumbered = new int[documents.size()];
+        List<Document> live = new ArrayList<>(documentByProduct.size());
+        for (int number = 0; number < documents.size(); number++) {
+            renumbered[number] = deleted.get(number) ? -1 : live.size();
+            if (!deleted.get(number)) {
+                live.add(documents.get(number));
+            }
+        }
+        postings.values().removeIf(list -> list.retain(renumbered) == 0);
+        documents.clear();
+        documents.addAll(live);
+        documentByProduct.clear();
+        for (int number = 0; number < live.size(); number++) {
+            documentByProduct.put(live.get(number).productId(), number);
+        }
+        deleted.clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text != null) {
+            for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // Each term of a product with the fields it occurs in
+    private static Map<String, Integer> terms(String sku, String name, String description) {
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(sku).forEach(term -> terms.merge(term, SKU, (a, b) -> a | b));
+        tokenize(name).forEach(term -> terms.merge(term, NAME, (a, b) -> a | b));
+        tokenize(description).forEach(term -> terms.merge(term, DESCRIPTION, (a, b) -> a | b));
+        return terms;
+    }
+
+    // What a hit shows; the indexed text itself lives only in the posting lists
+    private record Document(Long productId, String sku, String name, BigDecimal price, Long categoryId) {
+    }
+
+    private static class Postings {
+        private int[] documents = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        void add(int document, byte field) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            documents[size] = document;
+            fields[size] = field;
+            size++;
+        }
+
+        int retain(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int number = renumbered[documents[i]];
+                if (number >= 0) {
+                    documents[kept] = number;
+                    fields[kept] = fields[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    // Score arrays indexed by document number, borrowed from the pool for one query at a time
+    private static class Scratch {
+        private byte[] matched = new byte[0];
+        private float[] scores = new float[0];
+
+        void ensureCapacity(int documents) {
+            if (matched.length < documents) {
+                int capacity = Math.max(documents, matched.length * 3 / 2);
+                matched = new byte[capacity];
+                scores = new float[capacity];
+            }
+        }
+    }
+}
@@ -1,36 +1,119 @@
 package com.example.stockmanagement.service;
 
+import com.example.stockmanagement.config.CacheConfig;
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.KeysetCursor;
+import com.example.stockmanagement.dto.ProductSearchPage;
+import com.example.stockmanagement.dto.ProductSummary;
+import com.example.stockmanagement.event.InventoryChangedEvent;
 import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.model.Inventory;
 import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.model.StockMovement;
+import com.example.stockmanagement.model.SyncTombstone.EntityType;
+import com.example.stockmanagement.repository.InventoryRepository;
 import com.example.stockmanagement.repository.ProductRepository;
+import com.example.stockmanagement.service.CatalogVersions.Table;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
     private final CategoryService categoryService;
+    private final CacheManager cacheManager;
+    private final StockLedgerService stockLedgerService;
+    private final InMemoryStockEngine inMemoryStockEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final CatalogVersions catalogVersions;
+    private final SyncService syncService;
+    private final ProductSearchIndex productSearchIndex;
 
-    public ProductService(ProductRepository productRepository, CategoryService categoryService) {
+    public ProductService(ProductRepository productRepository, InventoryRepository inventoryRepository,
+                          CategoryService categoryService,
+                          CacheManager cacheManager, StockLedgerService stockLedgerService,
+                          InMemoryStockEngine inMemoryStockEngine, ApplicationEventPublisher eventPublisher,
+                          OptimisticLockRetry optimisticLockRetry, CatalogVersions catalogVersions,
+                          SyncService syncService, ProductSearchIndex productSearchIndex) {
         this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
         this.categoryService = categoryService;
+        this.cacheManager = cacheManager;
+        this.stockLedgerService = stockLedgerService;
+        this.inMemoryStockEngine = inMemoryStockEngine;
+        this.eventPublisher = eventPublisher;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.catalogVersions = catalogVersions;
+        this.syncService = syncService;
+        this.productSearchIndex = productSearchIndex;
     }
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    // Read-only transactions run with FlushMode.MANUAL, so Hibernate never flushes or dirty-checks on the way out
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getAllProducts() {
+        return productRepository.findAllSummaries();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummary> getProductPage(Integer limit, String after, String sort) {
+        String sortField = sort != null ? sort : "id";
+        Pageable pageable = PageRequest.ofSize(KeysetCursor.resolveLimit(limit));
+        KeysetCursor cursor = after != null ? KeysetCursor.decode(after, sortField) : null;
+
+        Slice<ProductSummary> slice;
+        switch (sortField) {
+            case "id" -> slice = productRepository.findPageOrderById(cursor != null ? cursor.id() : 0L, pageable);
+            case "name" -> slice = productRepository.findPageOrderByName(
+                    cursor != null ? cursor.value() : "", cursor != null ? cursor.id() : 0L, pageable);
+            default -> throw new IllegalArgumentException("Unsupported sort field for products: " + sortField);
+        }
+
+        String next = null;
+        if (slice.hasNext()) {
+            ProductSummary last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            next = new KeysetCursor(sortField, last.id(), "name".equals(sortField) ? last.name() : null).encode();
+        }
+        return new CursorPage<>(slice.getContent(), next);
+    }
+
+    // Every caller gets the same cached instance, so it must be treated as read-only; writes below always start
+    // from a fresh read
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id", sync = true)
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+        return findProduct(id);
+    }
+
+    public ProductSearchPage searchProducts(String query, Integer offset, Integer limit) {
+        return productSearchIndex.search(query, offset != null ? offset : 0,
+                limit != null ? limit : ProductSearchIndex.DEFAULT_LIMIT);
     }
 
-    public List<Product> getProductsByCategory(Long categoryId) {
-        Category category = categoryService.getCategoryById(categoryId);
-        return productRepository.findByCategory(category);
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_SKU, key = "#sku", sync = true)
+    public Product getProductBySku(String sku) {
+        return productRepository.findBySku(sku)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with sku: " + sku));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductsByCategory(Long categoryId) {
+        categoryService.getCategoryById(categoryId);
+        return productRepository.findSummariesByCategoryId(categoryId);
     }
 
     public Product createProduct(Product product) {
@@ -38,29 +121,95 @@ public class ProductService {
             Category category = categoryService.getCategoryById(product.getCategory().getId());
             product.setCategory(category);
         }
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        catalogVersions.bump(Table.PRODUCTS);
+        productSearchIndex.index(savedProduct);
+        return savedProduct;
     }
 
+    // Loads and saves in one transaction so a concurrent stock change is retried instead of overwritten
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        List<String> previousSku = new ArrayList<>(1);
+        Product savedProduct = optimisticLockRetry.execute(id, status -> {
+            Product product = findProduct(id);
+            previousSku.clear();
+            previousSku.add(product.getSku());
 
-        product.setName(productDetails.getName());
-        product.setDescription(productDetails.getDescription());
-        product.setPrice(productDetails.getPrice());
-        product.setSku(productDetails.getSku());
+            product.setName(productDetails.getName());
+            product.setDescription(productDetails.getDescription());
+            product.setPrice(productDetails.getPrice());
+            product.setSku(productDetails.getSku());
 
-        if (productDetails.getCategory() != null && productDetails.getCategory().getId() != null) {
-            Category category = categoryService.getCategoryById(productDetails.getCategory().getId());
-            product.setCategory(category);
-        }
+            if (productDetails.getCategory() != null && productDetails.getCategory().getId() != null) {
+                Category category = categoryService.getCategoryById(productDetails.getCategory().getId());
+                product.setCategory(category);
+            }
 
-        return productRepository.save(product);
+            return productRepository.saveAndFlush(product);
+        });
+        evictProduct(id, previousSku.get(0), savedProduct.getSku());
+        catalogVersions.bump(Table.PRODUCTS);
+        productSearchIndex.index(savedProduct);
+        return savedProduct;
     }
 
+    // The closing ledger entry and the delete commit together
+    @Transactional
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
+        Inventory inventory = inventoryRepository.findByProduct(product).orElse(null);
+        if (inventory != null) {
+            inMemoryStockEngine.checkNotManaged(id);
+            inventoryRepository.delete(inventory);
+        }
 
-        // With cascade delete, inventory will be automatically deleted
         productRepository.delete(product);
+        evictProduct(id, product.getSku());
+        catalogVersions.bump(Table.PRODUCTS);
+        productSearchIndex.remove(id);
+        syncService.recordDeletion(EntityType.PRODUCT, id);
+        if (inventory != null) {
+            stockLedgerService.record(id, -inventory.getQuantity(), StockMovement.Reason.CLOSING);
+            syncService.recordDeletion(EntityType.INVENTORY, inventory.getId());
+            eventPublisher.publishEvent(InventoryChangedEvent.of(InventoryChangedEvent.ChangeType.DELETED,
+                    inventory, inventory.isLowStock()));
+        }
+    }
+
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+    }
+
+    /**
+     * Inside a transaction the eviction waits until it completes: evicting before the commit would let a concurrent
+     * reader load the old row and cache it again for the whole time-to-live.
+     */
+    private void evictProduct(Long id, String... skus) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictProductNow(id, skus);
+                }
+            });
+        } else {
+            evictProductNow(id, skus);
+        }
+    }
+
+    private void evictProductNow(Long id, String... skus) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Cache productsBySku = cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU);
+        if (products != null) {
+            products.evict(id);
+        }
+        if (productsBySku != null) {
+            for (String sku : skus) {
+                if (sku != null) {
+                    productsBySku.evict(sku);
+                }
+            }
+        }
     }
 }
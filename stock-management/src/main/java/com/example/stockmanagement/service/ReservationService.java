@@ -0,0 +1,206 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.ReservationRequest;
+import com.example.stockmanagement.event.InventoryChangedEvent;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Reservation;
+import com.example.stockmanagement.model.StockMovement;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.repository.ReservationRepository;
+import com.example.stockmanagement.service.CatalogVersions.Table;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds stock for a checkout until it is confirmed, released or expires. A reservation only raises the
+ * inventory's reserved count, so the hold and its undo are one guarded update each instead of a remove and re-add.
+ * Expiry runs off an in-memory delay queue, re-armed from the active reservations at startup.
+ */
+@Service
+public class ReservationService {
+
+    private final ReservationRepository reservationRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockLedgerService stockLedgerService;
+    private final InMemoryStockEngine inMemoryStockEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryMetrics inventoryMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersions catalogVersions;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    private final DelayQueue<ExpiryTimer> expiryTimers = new DelayQueue<>();
+    private Thread expiryThread;
+
+    public ReservationService(ReservationRepository reservationRepository, InventoryRepository inventoryRepository,
+                              StockLedgerService stockLedgerService, InMemoryStockEngine inMemoryStockEngine,
+                              ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                              CatalogVersions catalogVersions, InventoryMetrics inventoryMetrics,
+                              @Value("${stock.reservations.default-ttl:PT15M}") Duration defaultTtl,
+                              @Value("${stock.reservations.max-ttl:PT24H}") Duration maxTtl) {
+        this.reservationRepository = reservationRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stockLedgerService = stockLedgerService;
+        this.inMemoryStockEngine = inMemoryStockEngine;
+        this.eventPublisher = eventPublisher;
+        this.inventoryMetrics = inventoryMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersions = catalogVersions;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Reservation reservation : reservationRepository.findByStatus(Reservation.Status.ACTIVE)) {
+            scheduleExpiry(reservation);
+        }
+        expiryThread = new Thread(this::runExpiry, "reservation-expiry");
+        expiryThread.setDaemon(true);
+        expiryThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryThread.interrupt();
+    }
+
+    public Reservation getReservation(Long id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Reservation not found with id: " + id));
+    }
+
+    @Transactional
+    public Reservation reserve(ReservationRequest request) {
+        if (request == null || request.productId() == null || request.quantity() == null) {
+            throw new IllegalArgumentException("Reservation requires a productId and a quantity");
+        }
+        if (request.quantity() <= 0) {
+            throw new IllegalArgumentException("Quantity to reserve must be positive");
+        }
+        Duration ttl = request.ttlSeconds() != null ? Duration.ofSeconds(request.ttlSeconds()) : defaultTtl;
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Reservation TTL must be between 1 second and " + maxTtl.toSeconds()
+                    + " seconds");
+        }
+        Long productId = request.productId();
+        inMemoryStockEngine.checkNotManaged(productId);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (inventoryRepository.reserveIfAvailable(productId, request.quantity(), now) == 0) {
+            if (!inventoryRepository.existsByProductId(productId)) {
+                throw new EntityNotFoundException("Inventory not found for product id: " + productId);
+            }
+            inventoryMetrics.recordRejection("reservation");
+            throw new IllegalStateException("Not enough stock available");
+        }
+        Reservation reservation = reservationRepository.save(
+                new Reservation(productId, request.quantity(), now, now.plus(ttl)));
+        // A timer left behind by a rolled-back reservation finds no active row and does nothing
+        scheduleExpiry(reservation);
+        catalogVersions.bump(Table.INVENTORY);
+        return reservation;
+    }
+
+    @Transactional
+    public Reservation confirm(Long id) {
+        Reservation reservation = getReservation(id);
+        LocalDateTime now = LocalDateTime.now();
+        if (reservationRepository.confirmIfActive(id, now) == 0) {
+            throw new IllegalStateException("Reservation " + id + " can no longer be confirmed, status: "
+                    + (reservation.getStatus() == Reservation.Status.ACTIVE ? "EXPIRED" : reservation.getStatus()));
+        }
+        if (inventoryRepository.consumeReserved(reservation.getProductId(), reservation.getQuantity(), now) == 0) {
+            throw new IllegalStateException("Reserved stock for product id " + reservation.getProductId()
+                    + " is no longer held");
+        }
+        stockLedgerService.record(reservation.getProductId(), -reservation.getQuantity(), StockMovement.Reason.STOCK_OUT);
+
+        inventoryRepository.findByProductId(reservation.getProductId()).ifPresent(inventory -> {
+            boolean wasLowStock = inventory.getQuantity() + reservation.getQuantity() <= inventory.getMinStockLevel();
+            eventPublisher.publishEvent(InventoryChangedEvent.of(
+                    InventoryChangedEvent.ChangeType.UPDATED, inventory, wasLowStock));
+        });
+        return getReservation(id);
+    }
+
+    @Transactional
+    public Reservation release(Long id) {
+        Reservation reservation = getReservation(id);
+        if (reservationRepository.closeIfActive(id, Reservation.Status.RELEASED) == 0) {
+            throw new IllegalStateException("Reservation " + id + " is not active, status: " + reservation.getStatus());
+        }
+        inventoryRepository.releaseReserved(reservation.getProductId(), reservation.getQuantity(), LocalDateTime.now());
+        catalogVersions.bump(Table.INVENTORY);
+        return getReservation(id);
+    }
+
+    // For reservations deleted outright, which would otherwise leave their timers in the queue until they fire
+    public void dropExpiryTimers(Collection<Long> reservationIds) {
+        if (!reservationIds.isEmpty()) {
+            Set<Long> ids = new HashSet<>(reservationIds);
+            expiryTimers.removeIf(timer -> ids.contains(timer.reservationId()));
+        }
+    }
+
+    private void scheduleExpiry(Reservation reservation) {
+        long delayNanos = Duration.between(LocalDateTime.now(), reservation.getExpiresAt()).toNanos();
+        expiryTimers.add(new ExpiryTimer(reservation.getId(), reservation.getProductId(), reservation.getQuantity(),
+                System.nanoTime() + delayNanos));
+    }
+
+    // Timers of confirmed or released reservations are not removed from the queue; they fire and find nothing to do
+    private void runExpiry() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ExpiryTimer timer;
+            try {
+                timer = expiryTimers.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (reservationRepository.closeIfActive(timer.reservationId(), Reservation.Status.EXPIRED) == 1) {
+                        inventoryRepository.releaseReserved(timer.productId(), timer.quantity(), LocalDateTime.now());
+                        catalogVersions.bump(Table.INVENTORY);
+                    }
+                });
+            } catch (RuntimeException e) {
+                System.out.println("Failed to expire reservation " + timer.reservationId() + ", retrying: "
+                        + e.getMessage());
+                expiryTimers.add(new ExpiryTimer(timer.reservationId(), timer.productId(), timer.quantity(),
+                        System.nanoTime() + TimeUnit.SECONDS.toNanos(1)));
+            }
+        }
+    }
+
+    private record ExpiryTimer(Long reservationId, Long productId, int quantity, long deadlineNanos)
+            implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineNanos, ((ExpiryTimer) other).deadlineNanos);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.event.InventoryChangedEvent;
+import com.example.stockmanagement.exception.ServiceUnavailableException;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.StockMovement;
+import com.example.stockmanagement.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional write path for hot products: stock movements for the same product are queued for a short window and
+ * applied as one locked read and one update, instead of every caller taking the row lock in its own transaction.
+ * Movements are still decided one by one in arrival order, so each caller gets its own result: the stock as it
+ * stood right after its own movement, not after the whole batch.
+ * <p>
+ * Callers wait at most {@code stock.coalescing.submit-timeout}. If a flush cannot be scheduled, the movements
+ * queued for that product fail right away instead of waiting for a flush that never comes.
+ */
+@Service
+public class StockCoalescer {
+
+    private final InventoryRepository inventoryRepository;
+    private final StockLedgerService stockLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryMetrics inventoryMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Duration submitTimeout;
+    private final ScheduledExecutorService flushExecutor;
+    private final ConcurrentMap<Long, ProductQueue> queues = new ConcurrentHashMap<>();
+
+    public StockCoalescer(InventoryRepository inventoryRepository, StockLedgerService stockLedgerService,
+                          ApplicationEventPublisher eventPublisher, InventoryMetrics inventoryMetrics,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${stock.coalescing.enabled:false}") boolean enabled,
+                          @Value("${stock.coalescing.window:5ms}") Duration window,
+                          @Value("${stock.coalescing.max-batch-size:1000}") int maxBatchSize,
+                          @Value("${stock.coalescing.flush-threads:4}") int flushThreads,
+                          @Value("${stock.coalescing.submit-timeout:5s}") Duration submitTimeout) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockLedgerService = stockLedgerService;
+        this.eventPublisher = eventPublisher;
+        this.inventoryMetrics = inventoryMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.submitTimeout = submitTimeout;
+        this.flushExecutor = Executors.newScheduledThreadPool(flushThreads, new CustomizableThreadFactory("stock-coalescer-"));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a movement and waits until the batch it landed in has committed. A removal that the stock left by
+     * the movements ahead of it cannot cover fails with the same exception as the direct path.
+     */
+    public Inventory submit(Long productId, int delta) {
+        PendingMovement movement = new PendingMovement(delta);
+        ProductQueue queue;
+        do {
+            queue = queues.computeIfAbsent(productId, ProductQueue::new);
+        } while (!queue.add(movement));
+        try {
+            return movement.result.get(submitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException(queue.withdraw(movement)
+                    ? "Stock movement was not applied within " + submitTimeout + " and has been dropped"
+                    : "Stock movement was not confirmed within " + submitTimeout + ", its outcome is unknown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(queue.withdraw(movement)
+                    ? "Interrupted before the stock movement was applied, it has been dropped"
+                    : "Interrupted while waiting for the stock movement, its outcome is unknown");
+        }
+    }
+
+    // Products with movements queued or being flushed
+    int activeQueues() {
+        return queues.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+    }
+
+    private class ProductQueue {
+
+        private final Long productId;
+        private final List<PendingMovement> pending = new ArrayList<>();
+        // Set while a flush is scheduled or running; at most one flush per product at a time
+        private boolean scheduled;
+        // Set once the queue has drained and left the map; callers that still hold it go and get the new one
+        private boolean retired;
+
+        private ProductQueue(Long productId) {
+            this.productId = productId;
+        }
+
+        private boolean add(PendingMovement movement) {
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                pending.add(movement);
+                if (scheduled) {
+                    return true;
+                }
+                scheduled = true;
+            }
+            dispatch(() -> flushExecutor.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS));
+            return true;
+        }
+
+        // Only movements still queued can be taken back; once in a batch they are applied or failed with it
+        private synchronized boolean withdraw(PendingMovement movement) {
+            return pending.remove(movement);
+        }
+
+        private void flush() {
+            List<PendingMovement> batch;
+            synchronized (this) {
+                int size = Math.min(pending.size(), maxBatchSize);
+                batch = new ArrayList<>(pending.subList(0, size));
+                pending.subList(0, size).clear();
+            }
+
+            try {
+                if (!batch.isEmpty()) {
+                    Inventory inventory = transactionTemplate.execute(status -> apply(batch));
+                    for (PendingMovement movement : batch) {
+                        if (movement.rejected) {
+                            inventoryMetrics.recordRejection("coalesced");
+                            movement.result.completeExceptionally(new IllegalStateException("Not enough stock available"));
+                        } else {
+                            movement.result.complete(stockAfter(inventory, movement.quantityAfter));
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                // Errors as well: the scheduler would swallow them and leave these callers waiting
+                for (PendingMovement movement : batch) {
+                    movement.result.completeExceptionally(e);
+                }
+            } finally {
+                flushRemaining();
+            }
+        }
+
+        private void flushRemaining() {
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    scheduled = false;
+                    retire();
+                    return;
+                }
+            }
+            // Whatever queued up during this flush already waited at least one window
+            dispatch(() -> flushExecutor.execute(this::flush));
+        }
+
+        // Hands a flush to the executor; if it refuses, nothing would ever flush the queue, so the queue is failed
+        private void dispatch(Runnable handOver) {
+            try {
+                handOver.run();
+            } catch (RuntimeException | Error e) {
+                List<PendingMovement> dropped;
+                synchronized (this) {
+                    dropped = new ArrayList<>(pending);
+                    pending.clear();
+                    scheduled = false;
+                    retire();
+                }
+                ServiceUnavailableException failure =
+                        new ServiceUnavailableException("Stock movement could not be scheduled: " + e.getMessage(), e);
+                for (PendingMovement movement : dropped) {
+                    movement.result.completeExceptionally(failure);
+                }
+            }
+        }
+
+        // Called holding the lock with nothing queued or scheduled, so every product touched once does not stay in
+        // the map for good
+        private void retire() {
+            retired = true;
+            queues.remove(productId, this);
+        }
+
+        private Inventory apply(List<PendingMovement> batch) {
+            List<Inventory> locked = inventoryRepository.findAllByProductIdInForUpdate(Set.of(productId));
+            if (locked.isEmpty()) {
+                throw new EntityNotFoundException("Inventory not found for product id: " + productId);
+            }
+            Inventory inventory = locked.get(0);
+            boolean wasLowStock = inventory.isLowStock();
+
+            LocalDateTime now = LocalDateTime.now();
+            int quantity = inventory.getQuantity();
+            List<StockMovement> ledgerEntries = new ArrayList<>(batch.size());
+            for (PendingMovement movement : batch) {
+                movement.rejected = quantity + (long) movement.delta < inventory.getReserved();
+                if (movement.rejected) {
+                    continue;
+                }
+                quantity += movement.delta;
+                movement.quantityAfter = quantity;
+                ledgerEntries.add(new StockMovement(productId, movement.delta,
+                        movement.delta > 0 ? StockMovement.Reason.STOCK_IN : StockMovement.Reason.STOCK_OUT, now));
+            }
+
+            if (!ledgerEntries.isEmpty()) {
+                inventory.setQuantity(quantity);
+                stockLedgerService.recordAll(ledgerEntries);
+                eventPublisher.publishEvent(InventoryChangedEvent.of(
+                        InventoryChangedEvent.ChangeType.UPDATED, inventory, wasLowStock));
+            }
+            return inventory;
+        }
+    }
+
+    // The committed row as the caller's own movement left it
+    private static Inventory stockAfter(Inventory inventory, int quantity) {
+        Inventory view = new Inventory(inventory.getId(), inventory.getProduct(), quantity,
+                inventory.getMinStockLevel(), inventory.getLastUpdated());
+        view.setReserved(inventory.getReserved());
+        view.setVersion(inventory.getVersion());
+        view.setLowStock(quantity <= inventory.getMinStockLevel());
+        return view;
+    }
+
+    private static class PendingMovement {
+
+        private final int delta;
+        private final CompletableFuture<Inventory> result = new CompletableFuture<>();
+        private boolean rejected;
+        private int quantityAfter;
+
+        private PendingMovement(int delta) {
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.CompactionResult;
+import com.example.stockmanagement.dto.CursorPage;
+import com.example.stockmanagement.dto.KeysetCursor;
+import com.example.stockmanagement.dto.LedgerTail;
+import com.example.stockmanagement.dto.MovementTotal;
+import com.example.stockmanagement.dto.StockAtTime;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.StockMovement;
+import com.example.stockmanagement.model.StockSnapshot;
+import com.example.stockmanagement.repository.StockMovementRepository;
+import com.example.stockmanagement.repository.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only history of every stock change. Movements are written in the same transaction as the inventory
+ * update they describe; a background compactor rolls them into per-product snapshots so point-in-time queries
+ * only ever read one snapshot plus a short tail of movements.
+ */
+@Service
+public class StockLedgerService {
+
+    private static final int COMPACTION_PRODUCT_CHUNK = 1000;
+
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration compactionLag;
+
+    public StockLedgerService(StockMovementRepository movementRepository, StockSnapshotRepository snapshotRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${stock.ledger.compaction-lag:PT1M}") Duration compactionLag) {
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.compactionLag = compactionLag;
+    }
+
+    @Transactional
+    public void record(Long productId, int delta, StockMovement.Reason reason) {
+        if (delta != 0) {
+            movementRepository.save(new StockMovement(productId, delta, reason, LocalDateTime.now()));
+        }
+    }
+
+    @Transactional
+    public void recordAll(List<StockMovement> movements) {
+        movementRepository.saveAll(movements);
+    }
+
+    @Transactional
+    public void recordOpeningBalances(List<Inventory> inventories) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = new ArrayList<>(inventories.size());
+        for (Inventory inventory : inventories) {
+            if (inventory.getQuantity() != 0) {
+                movements.add(new StockMovement(inventory.getProduct().getId(), inventory.getQuantity(),
+                        StockMovement.Reason.OPENING, now));
+            }
+        }
+        movementRepository.saveAll(movements);
+    }
+
+    @Transactional(readOnly = true)
+    public StockAtTime getStockAt(Long productId, LocalDateTime at) {
+        LocalDateTime pointInTime = at != null ? at : LocalDateTime.now();
+        List<StockSnapshot> snapshots = snapshotRepository.findLatestAt(productId, pointInTime, PageRequest.ofSize(1));
+        StockSnapshot snapshot = snapshots.isEmpty() ? null : snapshots.get(0);
+
+        long base = snapshot != null ? snapshot.getQuantity() : 0;
+        long afterId = snapshot != null ? snapshot.getLastMovementId() : 0;
+        LedgerTail tail = movementRepository.sumTail(productId, afterId, pointInTime);
+        return new StockAtTime(productId, pointInTime, base + tail.delta(),
+                snapshot != null ? snapshot.getAsOf() : null, tail.movements());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<StockMovement> getMovements(Long productId, Integer limit, String after) {
+        KeysetCursor cursor = after != null ? KeysetCursor.decode(after, "id") : null;
+        Slice<StockMovement> slice = movementRepository.findPageByProductId(productId,
+                cursor != null ? cursor.id() : 0L, PageRequest.ofSize(KeysetCursor.resolveLimit(limit)));
+
+        String next = null;
+        if (slice.hasNext()) {
+            StockMovement last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            next = new KeysetCursor("id", last.getId(), null).encode();
+        }
+        return new CursorPage<>(slice.getContent(), next);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.ledger.compaction-interval:PT1M}",
+            initialDelayString = "${stock.ledger.compaction-interval:PT1M}")
+    public void scheduledCompaction() {
+        CompactionResult result = compact();
+        if (result.snapshotsCreated() > 0) {
+            System.out.println("Stock ledger compaction: " + result.snapshotsCreated() + " snapshots up to movement "
+                    + result.lastMovementId() + " in " + result.durationMillis() + " ms");
+        }
+    }
+
+    /**
+     * Rolls every movement between the previous watermark and the newest movement older than the compaction lag
+     * into one new snapshot per affected product. The lag keeps the run clear of transactions that took an id
+     * but have not committed yet, which would otherwise end up below the watermark and never be counted.
+     */
+    public synchronized CompactionResult compact() {
+        long started = System.currentTimeMillis();
+        Integer created = transactionTemplate.execute(status -> {
+            long watermark = snapshotRepository.findWatermark();
+            Long upTo = movementRepository.findLastIdBefore(watermark, LocalDateTime.now().minus(compactionLag));
+            if (upTo == null) {
+                return 0;
+            }
+
+            List<MovementTotal> totals = movementRepository.sumByProduct(watermark, upTo);
+            List<StockSnapshot> snapshots = new ArrayList<>(totals.size());
+            for (int from = 0; from < totals.size(); from += COMPACTION_PRODUCT_CHUNK) {
+                List<MovementTotal> chunk = totals.subList(from, Math.min(from + COMPACTION_PRODUCT_CHUNK, totals.size()));
+                Map<Long, Long> previousQuantities = new HashMap<>();
+                for (StockSnapshot previous : snapshotRepository.findLatestForProducts(
+                        chunk.stream().map(MovementTotal::productId).toList())) {
+                    previousQuantities.put(previous.getProductId(), previous.getQuantity());
+                }
+                for (MovementTotal total : chunk) {
+                    snapshots.add(new StockSnapshot(total.productId(),
+                            previousQuantities.getOrDefault(total.productId(), 0L) + total.delta(),
+                            total.lastCreatedAt(), upTo));
+                }
+            }
+            snapshotRepository.saveAll(snapshots);
+            return snapshots.size();
+        });
+        return new CompactionResult(created != null ? created : 0, snapshotRepository.findWatermark(),
+                System.currentTimeMillis() - started);
+    }
+
+    @Transactional
+    public void deleteAll() {
+        snapshotRepository.deleteAllInBatch();
+        movementRepository.deleteAllInBatch();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.SyncChanges;
+import com.example.stockmanagement.model.Category;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.model.SyncTombstone;
+import com.example.stockmanagement.model.SyncTombstone.EntityType;
+import com.example.stockmanagement.repository.CategoryRepository;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.repository.ProductRepository;
+import com.example.stockmanagement.repository.SyncTombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class SyncService {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final Duration commitLag;
+    private final Duration tombstoneRetention;
+
+    public SyncService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                       InventoryRepository inventoryRepository, SyncTombstoneRepository tombstoneRepository,
+                       @Value("${stock.sync.commit-lag:PT5S}") Duration commitLag,
+                       @Value("${stock.sync.tombstone-retention:P30D}") Duration tombstoneRetention) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.commitLag = commitLag;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Timestamps are taken before commit, so a row can become visible with a timestamp slightly in the past. The
+     * watermark therefore trails the read by the commit lag; the rows in that window are sent again next time.
+     * Without {@code since}, or when tombstones after it may already be purged, the whole catalog is returned.
+     */
+    @Transactional(readOnly = true)
+    public SyncChanges getChanges(LocalDateTime since) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime watermark = now.minus(commitLag);
+        boolean full = since == null
+                || since.isBefore(now.minus(tombstoneRetention))
+                || tombstoneRepository.existsByEntityTypeAndDeletedAtAfter(EntityType.ALL, since);
+
+        if (full) {
+            return new SyncChanges(since, watermark, true, categoryRepository.findAll(), productRepository.findAll(),
+                    inventoryRepository.findAll(), List.of());
+        }
+        if (watermark.isBefore(since)) {
+            watermark = since;
+        }
+        List<Category> categories = categoryRepository.findModifiedSince(since);
+        List<Product> products = productRepository.findModifiedSince(since);
+        List<Inventory> inventory = inventoryRepository.findModifiedSince(since);
+        List<SyncTombstone> deleted = tombstoneRepository.findByDeletedAtAfterOrderByDeletedAt(since);
+        return new SyncChanges(since, watermark, false, categories, products, inventory, deleted);
+    }
+
+    // Joins the caller's transaction, so the tombstone only exists if the delete commits
+    @Transactional
+    public void recordDeletion(EntityType entityType, Long entityId) {
+        tombstoneRepository.save(new SyncTombstone(entityType, entityId, LocalDateTime.now()));
+    }
+
+    // Bulk cleanups leave one marker instead of a tombstone per row; clients that see it resync from scratch
+    @Transactional
+    public void recordReset() {
+        tombstoneRepository.save(new SyncTombstone(EntityType.ALL, null, LocalDateTime.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${stock.sync.tombstone-purge-interval:PT1H}",
+            initialDelayString = "${stock.sync.tombstone-purge-interval:PT1H}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " sync tombstones");
+        }
+    }
+}
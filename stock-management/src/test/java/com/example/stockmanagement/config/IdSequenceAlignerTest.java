@@ -0,0 +1,30 @@
+package com.example.stockmanagement.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdSequenceAlignerTest {
+
+    @Test
+    void pooledLoStartsRightAfterTheHighestId() {
+        assertThat(IdSequenceAligner.restartValue("pooled-lo", 1000, 50)).isEqualTo(1001);
+        assertThat(IdSequenceAligner.restartValue("pooled-lo", 0, 50)).isEqualTo(1);
+    }
+
+    // pooled hands out (value - allocationSize, value], so the first block has to end one block past the highest id
+    @Test
+    void pooledStartsOneBlockAfterTheHighestId() {
+        long restart = IdSequenceAligner.restartValue("pooled", 1000, 50);
+
+        assertThat(restart).isEqualTo(1050);
+        assertThat(restart - 50 + 1).isEqualTo(1001);
+    }
+
+    @Test
+    void rejectsOptimizersItCannotAlign() {
+        assertThatThrownBy(() -> IdSequenceAligner.restartValue("hilo", 1000, 50))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.stockmanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sequences are aligned once per database: a later startup finds the migration recorded and leaves them alone,
+ * even when a row with a higher explicit id has appeared since.
+ */
+@SpringBootTest(properties = "stock.ledger.compaction-interval=PT1H")
+class IdSequenceMigrationTest {
+
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long EXPLICIT_ID = 5_000_000;
+
+    @Autowired
+    private IdSequenceAligner idSequenceAligner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void startupRecordsTheMigration() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_migrations WHERE name = ?",
+                Integer.class, idSequenceAligner.migrationName())).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedMigrationDoesNotRestartTheSequences() {
+        jdbcTemplate.update("INSERT INTO categories (id, name, description, last_modified) "
+                + "VALUES (?, 'Migration category', NULL, CURRENT_TIMESTAMP)", EXPLICIT_ID);
+        try {
+            idSequenceAligner.migrate();
+
+            assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR category_seq", Long.class))
+                    .isLessThan(EXPLICIT_ID);
+        } finally {
+            jdbcTemplate.update("DELETE FROM categories WHERE id = ?", EXPLICIT_ID);
+        }
+    }
+}
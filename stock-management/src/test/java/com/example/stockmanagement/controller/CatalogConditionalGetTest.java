@@ -0,0 +1,85 @@
+package com.example.stockmanagement.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A repeat GET of an unchanged catalog list is answered from the version counters alone: 304, no body and not a
+ * single statement against the database, however large the catalog.
+ */
+@SpringBootTest(properties = "stock.ledger.compaction-interval=PT1H")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogConditionalGetTest {
+
+    private static final int CATALOG_SIZE = 100_000;
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long FIRST_ID = 2_000_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void seedCatalog() {
+        jdbcTemplate.update("INSERT INTO categories (id, name, description, last_modified) "
+                + "VALUES (?, 'ETag category', 'Seeded for conditional GETs', CURRENT_TIMESTAMP)", FIRST_ID);
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, sku, category_id, version, "
+                + "last_modified) SELECT X, 'ETag product ' || X, 'Seeded product', 9.99, 'ETAG-' || X, ?, 0, "
+                + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)", FIRST_ID, FIRST_ID, FIRST_ID + CATALOG_SIZE - 1);
+        jdbcTemplate.update("INSERT INTO inventory (id, product_id, quantity, min_stock_level, reserved, low_stock, "
+                + "version, last_updated) SELECT X, X, 100, 10, 0, FALSE, 0, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(?, ?)", FIRST_ID, FIRST_ID + CATALOG_SIZE - 1);
+    }
+
+    @Test
+    void unchangedProductListIsNotReadAgain() throws Exception {
+        assertRepeatGetRunsNoQueries("/api/products");
+    }
+
+    @Test
+    void unchangedCategoryListIsNotReadAgain() throws Exception {
+        assertRepeatGetRunsNoQueries("/api/categories");
+    }
+
+    @Test
+    void unchangedInventoryListIsNotReadAgain() throws Exception {
+        assertRepeatGetRunsNoQueries("/api/inventory");
+    }
+
+    private void assertRepeatGetRunsNoQueries(String path) throws Exception {
+        String etag = mockMvc.perform(get(path).param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(path).param("limit", "1000").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getConnectCount()).isZero();
+    }
+}
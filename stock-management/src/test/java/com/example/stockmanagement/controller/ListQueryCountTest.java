@@ -0,0 +1,108 @@
+package com.example.stockmanagement.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every list endpoint runs a fixed number of statements however many rows it returns: associations are fetched in
+ * the list query itself, never one select per row.
+ */
+@SpringBootTest(properties = "stock.ledger.compaction-interval=PT1H")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListQueryCountTest {
+
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long SMALL_CATEGORY_ID = 3_000_000;
+    private static final long LARGE_CATEGORY_ID = 3_000_001;
+    private static final int SMALL_CATEGORY_SIZE = 10;
+    private static final int LARGE_CATEGORY_SIZE = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void seedCatalog() {
+        jdbcTemplate.update("INSERT INTO categories (id, name, description, last_modified) VALUES "
+                        + "(?, 'Small query-count category', NULL, CURRENT_TIMESTAMP), "
+                        + "(?, 'Large query-count category', NULL, CURRENT_TIMESTAMP)",
+                SMALL_CATEGORY_ID, LARGE_CATEGORY_ID);
+        seedProducts(SMALL_CATEGORY_ID, 3_000_000, SMALL_CATEGORY_SIZE);
+        seedProducts(LARGE_CATEGORY_ID, 3_100_000, LARGE_CATEGORY_SIZE);
+    }
+
+    // Every other product is low on stock, so the low-stock list is long as well
+    private void seedProducts(long categoryId, long firstId, int count) {
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, sku, category_id, version, "
+                + "last_modified) SELECT X, 'Query-count product ' || X, NULL, 4.50, 'QC-' || X, ?, 0, "
+                + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?, ?)", categoryId, firstId, firstId + count - 1);
+        jdbcTemplate.update("INSERT INTO inventory (id, product_id, quantity, min_stock_level, reserved, low_stock, "
+                + "version, last_updated) SELECT X, X, MOD(X, 2) * 100, 10, 0, MOD(X, 2) = 0, 0, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(?, ?)", firstId, firstId + count - 1);
+    }
+
+    @Test
+    void productPagesRunOneQueryAtAnySize() throws Exception {
+        assertThat(queries(get("/api/products").param("limit", "10"))).isEqualTo(1);
+        assertThat(queries(get("/api/products").param("limit", "1000"))).isEqualTo(1);
+        assertThat(queries(get("/api/products").param("limit", "1000").param("sort", "name"))).isEqualTo(1);
+    }
+
+    @Test
+    void categoryPagesRunOneQueryAtAnySize() throws Exception {
+        assertThat(queries(get("/api/categories").param("limit", "1"))).isEqualTo(1);
+        assertThat(queries(get("/api/categories").param("limit", "1000"))).isEqualTo(1);
+    }
+
+    @Test
+    void inventoryPagesRunOneQueryAtAnySize() throws Exception {
+        assertThat(queries(get("/api/inventory").param("limit", "10"))).isEqualTo(1);
+        assertThat(queries(get("/api/inventory").param("limit", "1000"))).isEqualTo(1);
+        assertThat(queries(get("/api/inventory").param("limit", "1000").param("sort", "quantity"))).isEqualTo(1);
+    }
+
+    @Test
+    void lowStockListRunsOneQuery() throws Exception {
+        assertThat(queries(get("/api/inventory/low-stock"))).isEqualTo(1);
+    }
+
+    @Test
+    void productsByCategoryRunOneQueryForTenOrAThousandProducts() throws Exception {
+        long small = queries(get("/api/products/category/{id}", SMALL_CATEGORY_ID));
+        long large = queries(get("/api/products/category/{id}", LARGE_CATEGORY_ID));
+
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(1);
+    }
+
+    // Statements for one request, measured on a second run so one-time cache fills do not count
+    private long queries(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().isOk());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.stockmanagement.controller;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The catalog lists still answer clients that send no paging parameters with a bare array, marked deprecated, and
+ * answer everyone else with a cursor page.
+ */
+@SpringBootTest(properties = "stock.ledger.compaction-interval=PT1H")
+@AutoConfigureMockMvc
+class UnpagedListTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/products", "/api/categories", "/api/inventory"})
+    void requestWithoutPagingParametersGetsTheDeprecatedArray(String path) throws Exception {
+        mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(header().string("Deprecation", "true"))
+                .andExpect(header().string(HttpHeaders.LINK, "<" + path + "?limit=50>; rel=\"successor-version\""));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/products", "/api/categories", "/api/inventory"})
+    void pagedRequestGetsACursorPage(String path) throws Exception {
+        mockMvc.perform(get(path).param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(header().doesNotExist("Deprecation"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.config.CacheConfig;
+import com.example.stockmanagement.model.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Renaming a category evicts the cached products of that category, under both their keys, and keeps the products
+ * of every other category cached.
+ */
+@SpringBootTest(properties = "stock.ledger.compaction-interval=PT1H")
+class CategoryServiceCacheTest {
+
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long RENAMED_CATEGORY_ID = 6_000_000;
+    private static final long OTHER_CATEGORY_ID = 6_000_001;
+    private static final long RENAMED_PRODUCT_ID = 6_000_000;
+    private static final long OTHER_PRODUCT_ID = 6_000_001;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void renamingACategoryEvictsOnlyItsOwnProducts() {
+        seedCategory(RENAMED_CATEGORY_ID, "Cache category before");
+        seedCategory(OTHER_CATEGORY_ID, "Cache category other");
+        seedProduct(RENAMED_PRODUCT_ID, RENAMED_CATEGORY_ID);
+        seedProduct(OTHER_PRODUCT_ID, OTHER_CATEGORY_ID);
+        productService.getProductById(RENAMED_PRODUCT_ID);
+        productService.getProductById(OTHER_PRODUCT_ID);
+        productService.getProductBySku("CACHE-" + RENAMED_PRODUCT_ID);
+        productService.getProductBySku("CACHE-" + OTHER_PRODUCT_ID);
+
+        categoryService.updateCategory(RENAMED_CATEGORY_ID, new Category(null, "Cache category after", null));
+
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Cache productsBySku = cacheManager.getCache(CacheConfig.PRODUCTS_BY_SKU);
+        assertThat(products.get(RENAMED_PRODUCT_ID)).isNull();
+        assertThat(productsBySku.get("CACHE-" + RENAMED_PRODUCT_ID)).isNull();
+        assertThat(products.get(OTHER_PRODUCT_ID)).isNotNull();
+        assertThat(productsBySku.get("CACHE-" + OTHER_PRODUCT_ID)).isNotNull();
+        assertThat(productService.getProductById(RENAMED_PRODUCT_ID).getCategory().getName())
+                .isEqualTo("Cache category after");
+    }
+
+    private void seedCategory(long id, String name) {
+        jdbcTemplate.update("INSERT INTO categories (id, name, description, last_modified) "
+                + "VALUES (?, ?, NULL, CURRENT_TIMESTAMP)", id, name);
+    }
+
+    private void seedProduct(long id, long categoryId) {
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, sku, category_id, version, "
+                + "last_modified) VALUES (?, 'Cache product ' || ?, NULL, 1.00, 'CACHE-' || ?, ?, 0, "
+                + "CURRENT_TIMESTAMP)", id, id, id, categoryId);
+    }
+}
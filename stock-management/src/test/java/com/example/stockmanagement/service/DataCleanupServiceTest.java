@@ -0,0 +1,111 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.CleanupJobStatus;
+import com.example.stockmanagement.dto.ReservationRequest;
+import com.example.stockmanagement.model.Reservation;
+import com.example.stockmanagement.repository.ReservationRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cleaning up one provenance takes the reservations and the in-memory stock counters of its products along, and
+ * leaves everyone else's alone.
+ */
+@SpringBootTest(properties = {
+        "stock.ledger.compaction-interval=PT1H",
+        "stock.memory-engine.enabled=true",
+        "stock.memory-engine.product-ids=4000020",
+        "stock.memory-engine.wal-path=target/cleanup-test/stock-engine.wal"})
+class DataCleanupServiceTest {
+
+    private static final String PROVENANCE = "cleanup-test";
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long CATEGORY_ID = 4_000_000;
+    private static final long FIRST_PRODUCT_ID = 4_000_000;
+    private static final long OTHER_PRODUCT_ID = 4_000_010;
+    private static final long ENGINE_PRODUCT_ID = 4_000_020;
+
+    @Autowired
+    private DataCleanupService dataCleanupService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private InMemoryStockEngine inMemoryStockEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void provenanceCleanupDeletesTheReservationsOnItsProducts() throws Exception {
+        jdbcTemplate.update("INSERT INTO categories (id, name, description, provenance, last_modified) "
+                + "VALUES (?, 'Cleanup category', NULL, ?, CURRENT_TIMESTAMP)", CATEGORY_ID, PROVENANCE);
+        seedProduct(FIRST_PRODUCT_ID, PROVENANCE);
+        seedProduct(FIRST_PRODUCT_ID + 1, PROVENANCE);
+        seedProduct(OTHER_PRODUCT_ID, "api");
+
+        Reservation first = reservationService.reserve(new ReservationRequest(FIRST_PRODUCT_ID, 2, 3600L));
+        Reservation second = reservationService.reserve(new ReservationRequest(FIRST_PRODUCT_ID + 1, 3, 3600L));
+        Reservation other = reservationService.reserve(new ReservationRequest(OTHER_PRODUCT_ID, 4, 3600L));
+
+        CleanupJobStatus job = awaitJob(dataCleanupService.cleanupByProvenance(PROVENANCE).id());
+
+        assertThat(job.state()).isEqualTo(CleanupJobStatus.State.COMPLETED);
+        assertThat(job.deleted()).containsEntry("reservations", 2L).containsEntry("products", 2L);
+        assertThat(reservationRepository.findById(first.getId())).isEmpty();
+        assertThat(reservationRepository.findById(second.getId())).isEmpty();
+        assertThat(reservationRepository.findById(other.getId()))
+                .hasValueSatisfying(kept -> assertThat(kept.getStatus()).isEqualTo(Reservation.Status.ACTIVE));
+        assertThat(jdbcTemplate.queryForObject("SELECT reserved FROM inventory WHERE product_id = ?", Integer.class,
+                OTHER_PRODUCT_ID)).isEqualTo(4);
+    }
+
+    @Test
+    void provenanceCleanupDropsTheStockEngineCountersOfItsProducts() throws Exception {
+        jdbcTemplate.update("INSERT INTO categories (id, name, description, provenance, last_modified) "
+                + "VALUES (?, 'Engine cleanup category', NULL, ?, CURRENT_TIMESTAMP)", CATEGORY_ID + 1, PROVENANCE);
+        seedProduct(ENGINE_PRODUCT_ID, CATEGORY_ID + 1, PROVENANCE);
+        assertThat(inMemoryStockEngine.removeStock(ENGINE_PRODUCT_ID, 5).getQuantity()).isEqualTo(95);
+
+        CleanupJobStatus job = awaitJob(dataCleanupService.cleanupByProvenance(PROVENANCE).id());
+
+        assertThat(job.state()).isEqualTo(CleanupJobStatus.State.COMPLETED);
+        assertThatThrownBy(() -> inMemoryStockEngine.getInventory(ENGINE_PRODUCT_ID))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private void seedProduct(long id, String provenance) {
+        seedProduct(id, CATEGORY_ID, provenance);
+    }
+
+    private void seedProduct(long id, long categoryId, String provenance) {
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, sku, category_id, provenance, "
+                + "version, last_modified) VALUES (?, 'Cleanup product ' || ?, NULL, 1.00, 'CLEAN-' || ?, ?, ?, 0, "
+                + "CURRENT_TIMESTAMP)", id, id, id, categoryId, provenance);
+        jdbcTemplate.update("INSERT INTO inventory (id, product_id, quantity, min_stock_level, reserved, low_stock, "
+                + "version, last_updated) VALUES (?, ?, 100, 10, 0, FALSE, 0, CURRENT_TIMESTAMP)", id, id);
+    }
+
+    private CleanupJobStatus awaitJob(long id) throws InterruptedException {
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        CleanupJobStatus job = dataCleanupService.getJob(id);
+        while ((job.state() == CleanupJobStatus.State.QUEUED || job.state() == CleanupJobStatus.State.RUNNING)
+                && System.nanoTime() < giveUp) {
+            Thread.sleep(20);
+            job = dataCleanupService.getJob(id);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.exception.ServiceUnavailableException;
+import com.example.stockmanagement.repository.InventoryRepository;
+import com.example.stockmanagement.repository.StockEngineCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The engine run against the real tables with its own log file: replay after a restart, a log that refuses a
+ * write while callers wait for their durable ack, and many callers draining one product at once.
+ */
+@SpringBootTest(properties = "stock.ledger.compaction-interval=PT1H")
+class InMemoryStockEngineTest {
+
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long CATEGORY_ID = 7_000_000;
+    private static final long REPLAY_PRODUCT_ID = 7_000_000;
+    private static final long FAILURE_PRODUCT_ID = 7_000_001;
+    private static final long CONTENDED_PRODUCT_ID = 7_000_002;
+    private static final Path LOG_DIRECTORY = Path.of("target", "engine-test");
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockEngineCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void restartReplaysOnlyTheLogPastTheCheckpoint() throws Exception {
+        seedProduct(REPLAY_PRODUCT_ID, 100);
+        // Other tests' engines share the checkpoint row; moving it well past them keeps this log's sequences apart
+        long checkpoint = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(wal_sequence), 0) FROM stock_engine_checkpoint", Long.class) + 1000;
+        jdbcTemplate.update("MERGE INTO stock_engine_checkpoint (id, wal_sequence) KEY (id) VALUES (1, ?)", checkpoint);
+        Path walPath = logFile("replay");
+        Files.writeString(walPath, String.join("",
+                // Already in the table when the crash happened
+                line(checkpoint - 1, -5, "STOCK_OUT"),
+                line(checkpoint, -7, "STOCK_OUT"),
+                // Logged but never flushed
+                line(checkpoint + 1, -3, "STOCK_OUT"),
+                line(checkpoint + 2, 10, "STOCK_IN"),
+                // Torn by the crash
+                (checkpoint + 3) + "," + REPLAY_PRODUCT_ID + ",4"));
+
+        InMemoryStockEngine engine = engine(REPLAY_PRODUCT_ID, walPath);
+        engine.start();
+        try {
+            assertThat(tableQuantity(REPLAY_PRODUCT_ID)).isEqualTo(107);
+            assertThat(jdbcTemplate.queryForObject("SELECT SUM(delta) FROM stock_movements WHERE product_id = ?",
+                    Long.class, REPLAY_PRODUCT_ID)).isEqualTo(7);
+            assertThat(engine.getInventory(REPLAY_PRODUCT_ID).getQuantity()).isEqualTo(107);
+
+            // New changes continue after the last replayed sequence, not after the torn line
+            assertThat(engine.removeStock(REPLAY_PRODUCT_ID, 1).getQuantity()).isEqualTo(106);
+            engine.flush();
+            assertThat(tableQuantity(REPLAY_PRODUCT_ID)).isEqualTo(106);
+            assertThat(checkpointRepository.findById(1L).orElseThrow().getWalSequence()).isEqualTo(checkpoint + 3);
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void changeTheLogRefusesIsNeverVisible() throws Exception {
+        seedProduct(FAILURE_PRODUCT_ID, 100);
+        FailingLogEngine engine = new FailingLogEngine(FAILURE_PRODUCT_ID, logFile("failure"));
+        engine.start();
+        try {
+            assertThat(engine.removeStock(FAILURE_PRODUCT_ID, 5).getQuantity()).isEqualTo(95);
+
+            engine.channel.failing = true;
+            assertThatThrownBy(() -> engine.removeStock(FAILURE_PRODUCT_ID, 10))
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .hasMessageContaining("could not be logged");
+            assertThat(engine.getInventory(FAILURE_PRODUCT_ID).getQuantity()).isEqualTo(95);
+            engine.flush();
+            assertThat(tableQuantity(FAILURE_PRODUCT_ID)).isEqualTo(95);
+            assertThat(engine.reconcile()).filteredOn(result -> result.productId().equals(FAILURE_PRODUCT_ID))
+                    .singleElement().satisfies(result -> assertThat(result.consistent()).isTrue());
+
+            // Once the writer has repaired the log, changes are taken again from the stock that was really left
+            engine.channel.failing = false;
+            assertThat(removeOnceRecovered(engine, FAILURE_PRODUCT_ID, 95)).isEqualTo(0);
+            engine.flush();
+            assertThat(tableQuantity(FAILURE_PRODUCT_ID)).isEqualTo(0);
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentRemovalsNeverOverdraw() throws Exception {
+        seedProduct(CONTENDED_PRODUCT_ID, 100);
+        InMemoryStockEngine engine = engine(CONTENDED_PRODUCT_ID, logFile("contended"));
+        engine.start();
+        try {
+            int callers = 16;
+            int attemptsEach = 20;
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger applied = new AtomicInteger();
+            AtomicInteger refused = new AtomicInteger();
+            List<CompletableFuture<Void>> workers = IntStream.range(0, callers)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        awaitQuietly(start);
+                        for (int attempt = 0; attempt < attemptsEach; attempt++) {
+                            try {
+                                engine.removeStock(CONTENDED_PRODUCT_ID, 1);
+                                applied.incrementAndGet();
+                            } catch (IllegalStateException e) {
+                                refused.incrementAndGet();
+                            }
+                        }
+                    }))
+                    .toList();
+            start.countDown();
+            workers.forEach(CompletableFuture::join);
+
+            assertThat(applied.get()).isEqualTo(100);
+            assertThat(refused.get()).isEqualTo(callers * attemptsEach - 100);
+            assertThat(engine.getInventory(CONTENDED_PRODUCT_ID).getQuantity()).isZero();
+            engine.flush();
+            assertThat(tableQuantity(CONTENDED_PRODUCT_ID)).isZero();
+
+            // Restocking by adjustment once nothing is in flight
+            assertThat(engine.setStock(CONTENDED_PRODUCT_ID, 30).getQuantity()).isEqualTo(30);
+            assertThat(engine.removeStock(CONTENDED_PRODUCT_ID, 30).getQuantity()).isZero();
+            engine.flush();
+            assertThat(tableQuantity(CONTENDED_PRODUCT_ID)).isZero();
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private InMemoryStockEngine engine(long productId, Path walPath) {
+        return new InMemoryStockEngine(inventoryRepository, checkpointRepository, stockLedgerService, eventPublisher,
+                inventoryMetrics, transactionTemplate, true, String.valueOf(productId), walPath.toString(), true,
+                false, Duration.ofSeconds(5));
+    }
+
+    // The writer repairs the log on its next idle poll; until then changes are refused without being admitted
+    private static int removeOnceRecovered(InMemoryStockEngine engine, long productId, int quantity)
+            throws InterruptedException {
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                return engine.removeStock(productId, quantity).getQuantity();
+            } catch (ServiceUnavailableException e) {
+                if (System.nanoTime() > giveUp) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private void seedProduct(long id, int quantity) {
+        jdbcTemplate.update("MERGE INTO categories (id, name, description, last_modified) KEY (id) "
+                + "VALUES (?, 'Engine category', NULL, CURRENT_TIMESTAMP)", CATEGORY_ID);
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, sku, category_id, version, "
+                + "last_modified) VALUES (?, 'Engine product ' || ?, NULL, 1.00, 'ENGINE-' || ?, ?, 0, "
+                + "CURRENT_TIMESTAMP)", id, id, id, CATEGORY_ID);
+        jdbcTemplate.update("INSERT INTO inventory (id, product_id, quantity, min_stock_level, reserved, low_stock, "
+                + "version, last_updated) VALUES (?, ?, ?, 10, 0, FALSE, 0, CURRENT_TIMESTAMP)", id, id, quantity);
+    }
+
+    private int tableQuantity(long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE product_id = ?", Integer.class,
+                productId);
+    }
+
+    private static String line(long sequence, int delta, String reason) {
+        return sequence + "," + REPLAY_PRODUCT_ID + "," + delta + "," + reason + "\n";
+    }
+
+    private static Path logFile(String name) throws IOException {
+        Files.createDirectories(LOG_DIRECTORY);
+        Path walPath = LOG_DIRECTORY.resolve(name + ".wal");
+        Files.deleteIfExists(walPath);
+        return walPath;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class FailingLogEngine extends InMemoryStockEngine {
+
+        private FailingChannel channel;
+
+        private FailingLogEngine(long productId, Path walPath) {
+            super(inventoryRepository, checkpointRepository, stockLedgerService, eventPublisher, inventoryMetrics,
+                    transactionTemplate, true, String.valueOf(productId), walPath.toString(), true, false,
+                    Duration.ofSeconds(5));
+        }
+
+        @Override
+        FileChannel openLog() throws IOException {
+            channel = new FailingChannel(super.openLog(), channel != null && channel.failing);
+            return channel;
+        }
+    }
+
+    // Passes everything to the real log file, except that writes and forces fail while failing is set
+    private static class FailingChannel extends FileChannel {
+
+        private final FileChannel file;
+        private volatile boolean failing;
+
+        private FailingChannel(FileChannel file, boolean failing) {
+            this.file = file;
+            this.failing = failing;
+        }
+
+        private void check() throws IOException {
+            if (failing) {
+                throw new IOException("No space left on device");
+            }
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            check();
+            return file.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            check();
+            return file.write(srcs, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            check();
+            return file.write(src, position);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            check();
+            file.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return file.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return file.read(dsts, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return file.read(dst, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return file.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            file.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return file.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            file.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return file.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            check();
+            return file.transferFrom(src, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return file.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return file.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return file.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            file.close();
+        }
+    }
+}
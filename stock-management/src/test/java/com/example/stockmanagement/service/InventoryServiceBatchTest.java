@@ -0,0 +1,55 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.BatchMode;
+import com.example.stockmanagement.dto.BatchMovementResult;
+import com.example.stockmanagement.dto.MovementLineResult;
+import com.example.stockmanagement.dto.StockMovementRequest;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batch lines are checked against both ends of the stock range before anything is written.
+ */
+@SpringBootTest
+class InventoryServiceBatchTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Test
+    void lineThatWouldOverflowTheQuantityIsRejected() {
+        Long productId = createStockedProduct("BATCH-OVERFLOW", Integer.MAX_VALUE - 10);
+
+        BatchMovementResult result = inventoryService.applyMovements(List.of(
+                new StockMovementRequest(productId, 5),
+                new StockMovementRequest(productId, 1000)), BatchMode.BEST_EFFORT);
+
+        assertThat(result.results()).extracting(MovementLineResult::status)
+                .containsExactly(MovementLineResult.Status.APPLIED, MovementLineResult.Status.REJECTED);
+        assertThat(result.results().get(1).message()).contains("maximum stock level");
+        assertThat(inventoryRepository.findByProductId(productId).orElseThrow().getQuantity())
+                .isEqualTo(Integer.MAX_VALUE - 5);
+    }
+
+    private Long createStockedProduct(String sku, int quantity) {
+        Product product = productService.createProduct(
+                new Product(null, "Batch " + sku, "Batch test product", new BigDecimal("1.00"), sku, null));
+        inventoryService.createInventory(new Inventory(null, product, quantity, 10, null));
+        return product.getId();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.model.Product;
+import com.example.stockmanagement.repository.InventoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads moving stock on one SKU at once: the guarded single-statement path must apply every movement. How
+ * it compares with the read-modify-write path it replaced is measured by StockMovementPathBenchmark.
+ */
+@SpringBootTest
+class InventoryServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int MOVEMENTS_PER_THREAD = 200;
+    private static final int INITIAL_QUANTITY = 1_000_000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void guardedUpdatesLoseNoMovementsOnOneSku() throws Exception {
+        Long productId = createStockedProduct("CONC-GUARDED");
+
+        Run run = hammer(productId);
+
+        assertThat(run.failed()).isZero();
+        assertThat(quantity(productId)).isEqualTo(INITIAL_QUANTITY + expectedNetChange());
+        assertThat(ledgerTotal(productId)).isEqualTo(quantity(productId));
+    }
+
+    @Test
+    void movementReturnsTheNewRowWithoutLoadingEntities() {
+        Long productId = createStockedProduct("CONC-NO-RELOAD");
+        productService.getProductById(productId);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Inventory inventory = inventoryService.removeStock(productId, 5);
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(inventory.getQuantity()).isEqualTo(INITIAL_QUANTITY - 5);
+        assertThat(inventory.getProduct().getId()).isEqualTo(productId);
+        assertThat(inventory.getVersion()).isEqualTo(inventoryRepository.findByProductId(productId).orElseThrow().getVersion());
+    }
+
+    private void guardedMovement(Long productId, int delta) {
+        if (delta > 0) {
+            inventoryService.addStock(productId, delta);
+        } else {
+            inventoryService.removeStock(productId, -delta);
+        }
+    }
+
+    // Every thread alternates +3 and -2
+    private Run hammer(Long productId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < MOVEMENTS_PER_THREAD; i++) {
+                    try {
+                        guardedMovement(productId, i % 2 == 0 ? 3 : -2);
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        return new Run(THREADS * MOVEMENTS_PER_THREAD - failed.get(), failed.get());
+    }
+
+    private static int expectedNetChange() {
+        return THREADS * (MOVEMENTS_PER_THREAD / 2) * (3 - 2);
+    }
+
+    private Long createStockedProduct(String sku) {
+        Product product = productService.createProduct(
+                new Product(null, "Concurrency " + sku, "Concurrency test product", new BigDecimal("1.00"), sku, null));
+        inventoryService.createInventory(new Inventory(null, product, INITIAL_QUANTITY, 10, null));
+        return product.getId();
+    }
+
+    private int quantity(Long productId) {
+        return inventoryRepository.findByProductId(productId).orElseThrow().getQuantity();
+    }
+
+    private int ledgerTotal(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(delta), 0) FROM stock_movements WHERE product_id = ?",
+                Integer.class, productId);
+    }
+
+    private record Run(int applied, int failed) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.ReservationRequest;
+import com.example.stockmanagement.model.Reservation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A reservation ends exactly once: by expiry, which hands its stock back, or by whichever of confirm and release
+ * gets there first.
+ */
+@SpringBootTest(properties = "stock.ledger.compaction-interval=PT1H")
+class ReservationServiceTest {
+
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long EXPIRY_PRODUCT_ID = 9_000_000;
+    private static final long RACE_PRODUCT_ID = 9_000_001;
+    private static final int RACED_RESERVATIONS = 20;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void expiryHandsTheReservedStockBack() throws InterruptedException {
+        seedProduct(EXPIRY_PRODUCT_ID);
+        Reservation reservation = reservationService.reserve(new ReservationRequest(EXPIRY_PRODUCT_ID, 4, 1L));
+        assertThat(reserved(EXPIRY_PRODUCT_ID)).isEqualTo(4);
+
+        Reservation ended = awaitEnded(reservation.getId());
+
+        assertThat(ended.getStatus()).isEqualTo(Reservation.Status.EXPIRED);
+        assertThat(reserved(EXPIRY_PRODUCT_ID)).isZero();
+        assertThat(quantity(EXPIRY_PRODUCT_ID)).isEqualTo(100);
+    }
+
+    @Test
+    void confirmReleaseAndExpiryRacingEndEachReservationOnce() throws Exception {
+        seedProduct(RACE_PRODUCT_ID);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < RACED_RESERVATIONS; i++) {
+            reservations.add(reservationService.reserve(new ReservationRequest(RACE_PRODUCT_ID, 1, 1L)));
+        }
+        LocalDateTime expiresAt = reservations.get(reservations.size() - 1).getExpiresAt();
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<Void>> calls = new ArrayList<>();
+            for (Reservation reservation : reservations) {
+                calls.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    try {
+                        reservationService.confirm(reservation.getId());
+                        confirmed.incrementAndGet();
+                    } catch (IllegalStateException lost) {
+                        // Released or expired first
+                    }
+                }, executor));
+                calls.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    try {
+                        reservationService.release(reservation.getId());
+                        released.incrementAndGet();
+                    } catch (IllegalStateException lost) {
+                        // Confirmed or expired first
+                    }
+                }, executor));
+            }
+            // Let the calls go right when the expiry timers fire
+            long untilExpiry = Duration.between(LocalDateTime.now(), expiresAt).toMillis();
+            if (untilExpiry > 0) {
+                Thread.sleep(untilExpiry);
+            }
+            start.countDown();
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int expired = 0;
+        for (Reservation reservation : reservations) {
+            Reservation ended = awaitEnded(reservation.getId());
+            if (ended.getStatus() == Reservation.Status.EXPIRED) {
+                expired++;
+            }
+        }
+        assertThat(confirmed.get() + released.get() + expired).isEqualTo(RACED_RESERVATIONS);
+        assertThat(count(RACE_PRODUCT_ID, Reservation.Status.CONFIRMED)).isEqualTo(confirmed.get());
+        assertThat(count(RACE_PRODUCT_ID, Reservation.Status.RELEASED)).isEqualTo(released.get());
+        assertThat(reserved(RACE_PRODUCT_ID)).isZero();
+        assertThat(quantity(RACE_PRODUCT_ID)).isEqualTo(100 - confirmed.get());
+    }
+
+    private void seedProduct(long id) {
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, sku, category_id, provenance, "
+                + "version, last_modified) VALUES (?, 'Reservation product ' || ?, NULL, 1.00, 'RESV-' || ?, NULL, "
+                + "'api', 0, CURRENT_TIMESTAMP)", id, id, id);
+        jdbcTemplate.update("INSERT INTO inventory (id, product_id, quantity, min_stock_level, reserved, low_stock, "
+                + "version, last_updated) VALUES (?, ?, 100, 10, 0, FALSE, 0, CURRENT_TIMESTAMP)", id, id);
+    }
+
+    private Reservation awaitEnded(Long id) throws InterruptedException {
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        Reservation reservation = reservationService.getReservation(id);
+        while (reservation.getStatus() == Reservation.Status.ACTIVE && System.nanoTime() < giveUp) {
+            Thread.sleep(20);
+            reservation = reservationService.getReservation(id);
+        }
+        return reservation;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int reserved(long productId) {
+        return jdbcTemplate.queryForObject("SELECT reserved FROM inventory WHERE product_id = ?", Integer.class,
+                productId);
+    }
+
+    private int quantity(long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM inventory WHERE product_id = ?", Integer.class,
+                productId);
+    }
+
+    private int count(long productId, Reservation.Status status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations WHERE product_id = ? AND status = ?",
+                Integer.class, productId, status.name());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.exception.ServiceUnavailableException;
+import com.example.stockmanagement.model.Inventory;
+import com.example.stockmanagement.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StockCoalescerTest {
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private StockCoalescer coalescer(Duration window) {
+        return new StockCoalescer(inventoryRepository, mock(StockLedgerService.class),
+                mock(ApplicationEventPublisher.class), mock(InventoryMetrics.class), transactionTemplate,
+                true, window, 1000, 1, Duration.ofSeconds(5));
+    }
+
+    // Callers sharing a batch each see the stock right after their own movement, not the batch total
+    @Test
+    void everyCallerGetsTheQuantityAfterItsOwnMovement() {
+        Inventory row = new Inventory(1L, null, 10, 0, LocalDateTime.now());
+        when(inventoryRepository.findAllByProductIdInForUpdate(any())).thenReturn(List.of(row));
+        when(transactionTemplate.execute(any())).thenAnswer(call ->
+                call.<TransactionCallback<Inventory>>getArgument(0).doInTransaction(null));
+        StockCoalescer coalescer = coalescer(Duration.ofMillis(200));
+        try {
+            List<CompletableFuture<Inventory>> callers = IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> coalescer.submit(1L, 1)))
+                    .toList();
+
+            List<Integer> quantities = callers.stream().map(CompletableFuture::join).map(Inventory::getQuantity)
+                    .sorted().toList();
+            assertThat(quantities).containsExactly(11, 12, 13, 14);
+            assertThat(row.getQuantity()).isEqualTo(14);
+        } finally {
+            coalescer.shutdown();
+        }
+    }
+
+    // Every product ever moved used to keep its queue in the map; a drained queue leaves it, and the next movement
+    // for the same product gets a fresh one
+    @Test
+    void drainedQueuesAreRemoved() throws InterruptedException {
+        Inventory row = new Inventory(1L, null, 1000, 0, LocalDateTime.now());
+        when(inventoryRepository.findAllByProductIdInForUpdate(any())).thenReturn(List.of(row));
+        when(transactionTemplate.execute(any())).thenAnswer(call ->
+                call.<TransactionCallback<Inventory>>getArgument(0).doInTransaction(null));
+        StockCoalescer coalescer = coalescer(Duration.ofMillis(5));
+        try {
+            List<CompletableFuture<Inventory>> callers = LongStream.rangeClosed(1, 50)
+                    .mapToObj(productId -> CompletableFuture.supplyAsync(() -> coalescer.submit(productId, 1)))
+                    .toList();
+            callers.forEach(CompletableFuture::join);
+            awaitNoActiveQueues(coalescer);
+
+            assertThat(coalescer.submit(1L, 1).getQuantity()).isEqualTo(1051);
+            awaitNoActiveQueues(coalescer);
+        } finally {
+            coalescer.shutdown();
+        }
+    }
+
+    // A refused flush must not leave the product marked as scheduled, or every later caller would wait forever
+    @Test
+    void failsQueuedMovementsWhenNoFlushCanBeScheduled() {
+        StockCoalescer coalescer = coalescer(Duration.ofMillis(5));
+        coalescer.shutdown();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThatThrownBy(() -> coalescer.submit(1L, 5))
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .hasMessageContaining("could not be scheduled");
+        }
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    // The queue leaves the map right after the flush has completed its callers
+    private static void awaitNoActiveQueues(StockCoalescer coalescer) throws InterruptedException {
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.activeQueues() > 0 && System.nanoTime() < giveUp) {
+            Thread.sleep(5);
+        }
+        assertThat(coalescer.activeQueues()).isZero();
+    }
+}
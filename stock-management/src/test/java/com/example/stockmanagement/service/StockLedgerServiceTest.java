@@ -0,0 +1,86 @@
+package com.example.stockmanagement.service;
+
+import com.example.stockmanagement.dto.CompactionResult;
+import com.example.stockmanagement.dto.StockAtTime;
+import com.example.stockmanagement.model.StockMovement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Point-in-time stock is the latest snapshot at that time plus the movements after it, and compaction only moves
+ * the watermark past movements older than the lag.
+ */
+@SpringBootTest(properties = {
+        "stock.ledger.compaction-interval=PT1H",
+        "stock.ledger.compaction-lag=PT10M"})
+class StockLedgerServiceTest {
+
+    // Far above anything the sequences hand out to other tests sharing the database
+    private static final long PRODUCT_ID = 8_000_000;
+    private static final long WATERMARK_PRODUCT_ID = 8_000_001;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void stockAtTimeAddsTheTailToTheLatestSnapshot() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        stockLedgerService.recordAll(List.of(
+                new StockMovement(PRODUCT_ID, 100, StockMovement.Reason.OPENING, now.minusHours(3)),
+                new StockMovement(PRODUCT_ID, -30, StockMovement.Reason.STOCK_OUT, now.minusHours(2))));
+        stockLedgerService.compact();
+        stockLedgerService.record(PRODUCT_ID, 5, StockMovement.Reason.STOCK_IN);
+
+        StockAtTime current = stockLedgerService.getStockAt(PRODUCT_ID, null);
+        assertThat(current.quantity()).isEqualTo(75);
+        assertThat(current.snapshotAsOf()).isEqualTo(now.minusHours(2));
+        assertThat(current.movementsAfterSnapshot()).isEqualTo(1);
+
+        StockAtTime atSnapshot = stockLedgerService.getStockAt(PRODUCT_ID, now.minusMinutes(90));
+        assertThat(atSnapshot.quantity()).isEqualTo(70);
+        assertThat(atSnapshot.movementsAfterSnapshot()).isZero();
+
+        // Before the snapshot there is nothing to start from, so the whole ledger up to then is summed
+        StockAtTime beforeSnapshot = stockLedgerService.getStockAt(PRODUCT_ID, now.minusMinutes(150));
+        assertThat(beforeSnapshot.quantity()).isEqualTo(100);
+        assertThat(beforeSnapshot.snapshotAsOf()).isNull();
+        assertThat(beforeSnapshot.movementsAfterSnapshot()).isEqualTo(1);
+    }
+
+    @Test
+    void compactionWatermarkStopsAtMovementsYoungerThanTheLag() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        StockMovement settled = new StockMovement(WATERMARK_PRODUCT_ID, 40, StockMovement.Reason.OPENING,
+                now.minusHours(1));
+        StockMovement recent = new StockMovement(WATERMARK_PRODUCT_ID, -15, StockMovement.Reason.STOCK_OUT, now);
+        stockLedgerService.recordAll(List.of(settled, recent));
+
+        CompactionResult first = stockLedgerService.compact();
+        assertThat(first.lastMovementId()).isEqualTo(settled.getId());
+        StockAtTime afterFirst = stockLedgerService.getStockAt(WATERMARK_PRODUCT_ID, null);
+        assertThat(afterFirst.quantity()).isEqualTo(25);
+        assertThat(afterFirst.snapshotAsOf()).isEqualTo(now.minusHours(1));
+        assertThat(afterFirst.movementsAfterSnapshot()).isEqualTo(1);
+
+        // Once the recent movement is older than the lag the next run takes it in
+        jdbcTemplate.update("UPDATE stock_movements SET created_at = ? WHERE id = ?",
+                now.minusMinutes(30), recent.getId());
+        CompactionResult second = stockLedgerService.compact();
+        assertThat(second.lastMovementId()).isEqualTo(recent.getId());
+        StockAtTime afterSecond = stockLedgerService.getStockAt(WATERMARK_PRODUCT_ID, null);
+        assertThat(afterSecond.quantity()).isEqualTo(25);
+        assertThat(afterSecond.snapshotAsOf()).isEqualTo(now.minusMinutes(30));
+        assertThat(afterSecond.movementsAfterSnapshot()).isZero();
+    }
+}